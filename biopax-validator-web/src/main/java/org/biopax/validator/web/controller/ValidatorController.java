@@ -82,6 +82,7 @@ public class ValidatorController {
    * @param filter
    * @param maxErrors
    * @param profile
+   * @param timeout max. seconds to check each file (partial results are returned when the time is out)
    *
    * Normalizer parameters:
    * @param normalizer binds to view options: normalizer.fixDisplayName,
@@ -98,6 +99,7 @@ public class ValidatorController {
     @RequestParam(required=false) Behavior filter,
     @RequestParam(required=false) Integer maxErrors,
     @RequestParam(required=false) String profile,
+    @RequestParam(required=false) Integer timeout,
     //normalizer!=null when called from the JSP;
     //but it's usually null when from the validator-client or a web script
     @ModelAttribute("normalizer") Normalizer normalizer) throws IOException
@@ -105,6 +107,7 @@ public class ValidatorController {
     Resource resource; //to validate
     final int lim = (maxErrors != null)? maxErrors.intValue() : 0; //0->no error limit
     final boolean fix = Boolean.TRUE.equals(autofix);
+    final int sec = (timeout != null)? timeout.intValue() : 0; //0->no time limit
 
     // create the response container
     ValidatorResponse validatorResponse = new ValidatorResponse();
@@ -119,7 +122,7 @@ public class ValidatorController {
       }
 
       try {
-        Validation v = service.validate(resource, lim, fix, filter, profile, normalizer);
+        Validation v = service.validate(resource, lim, fix, filter, profile, sec, normalizer);
         validatorResponse.addValidationResult(v);
       } catch (Exception e) {
         return errorView(mvcModel, e.toString());
@@ -140,7 +143,7 @@ public class ValidatorController {
         log.info("check : " + filename);
         resource = new ByteArrayResource(file.getBytes(), filename);
         try {
-          Validation v = service.validate(resource, lim, fix, filter, profile, normalizer);
+          Validation v = service.validate(resource, lim, fix, filter, profile, sec, normalizer);
           validatorResponse.addValidationResult(v);
         } catch (Exception e) {
           return errorView(mvcModel, e.toString());
@@ -0,0 +1,81 @@
+package org.biopax.validator.web.service;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.biopax.validator.utils.OntologyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Management endpoint to list the ontologies and reload them
+ * (e.g. POST /actuator/ontologies, when exposed) without restarting the app.
+ */
+@Component
+@Endpoint(id = "ontologies")
+public class OntologiesEndpoint {
+
+  private final static Log log = LogFactory.getLog(OntologiesEndpoint.class);
+
+  private final OntologyUtils ontologyUtils;
+
+  // reloads in the background (parsing all the OBO files takes a while)
+  private final ExecutorService reloader = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "ontologies-reload");
+    t.setDaemon(true);
+    return t;
+  });
+
+  private final AtomicBoolean reloading = new AtomicBoolean();
+
+  @Autowired
+  public OntologiesEndpoint(OntologyUtils ontologyUtils) {
+    this.ontologyUtils = ontologyUtils;
+  }
+
+  @ReadOperation
+  public Set<String> ontologies() {
+    return new TreeSet<>(ontologyUtils.getOntologyManager().getOntologyIDs());
+  }
+
+  /**
+   * Starts loading the ontologies and xref.db synonyms again, in the background,
+   * and then replaces the current ones (validations in progress continue meanwhile).
+   * Does not start another reload while one is in progress.
+   *
+   * @return status: "accepted" or "in progress" (the previous request is not done yet)
+   */
+  @WriteOperation
+  public Map<String, String> reload() {
+    if (!reloading.compareAndSet(false, true))
+      return Collections.singletonMap("status", "in progress");
+
+    reloader.execute(() -> {
+      try {
+        ontologyUtils.reload(); //logs the result
+      } catch (Throwable t) {
+        log.error("Failed to reload the ontologies (keep using the old ones)", t);
+      } finally {
+        reloading.set(false);
+      }
+    });
+
+    return Collections.singletonMap("status", "accepted");
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    reloader.shutdownNow();
+  }
+}
@@ -17,12 +17,13 @@ public interface ValidatorAdapter {
    * @param fixErrors optional, when true, some validator rules can auto-fix the model (issues still get reported)
    * @param level optional, if 'ERROR' then warnings are ignored; 'WARNING' - both errors and warnings are reported.
    * @param profile optional, validation rules' behavior settings profile, e.g., 'notstrict', 'default'
+   * @param timeout optional, if greater than 0, stop checking after so many seconds and return partial results
    * @param normalizer optional, pre-configured biopax normalizer
    * @return validation report
    * @throws IOException when fails to read the data
    */
   Validation validate(Resource data, int maxErrors, boolean fixErrors,
-                      Behavior level, String profile,
+                      Behavior level, String profile, int timeout,
                       Normalizer normalizer) throws IOException;
 
   /**
@@ -16,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.FileCopyUtils;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class ValidatorService implements ValidatorAdapter {
@@ -34,14 +35,14 @@ public class ValidatorService implements ValidatorAdapter {
 
   public Validation validate(Resource data,
                              int errMax, boolean isFix,
-                             Behavior errorLevel, String profile,
+                             Behavior errorLevel, String profile, int timeout,
                              Normalizer normalizer) throws IOException
   {
     Validation validationResult = new Validation(new BiopaxIdentifier(),
       data.getDescription(), isFix, errorLevel, errMax, profile);
     //run the biopax-validator (this updates the validationResult object)
     biopaxValidator.importModel(validationResult, data.getInputStream());
-    biopaxValidator.validate(validationResult);
+    biopaxValidator.validate(validationResult, timeout, TimeUnit.SECONDS);
     biopaxValidator.getResults().remove(validationResult);
 
     if(isFix) { // do normalize too
@@ -25,6 +25,13 @@
 		${comment}; 
 	  </c:forEach>
 	</li>
+	<c:if test="${result.incomplete}">
+	<li>${result.summary}; unfinished rules: 
+	  <c:forEach var="rule" items="${result.unfinishedRules}">
+		${rule}; 
+	  </c:forEach>
+	</li>
+	</c:if>
   </ul>	
   <table class="table table-bordered">
   	<thead>
@@ -5,7 +5,9 @@ import org.biopax.paxtools.model.BioPAXElement;
 import org.biopax.validator.api.CvRestriction;
 import org.biopax.validator.api.CvRule;
 import org.biopax.validator.api.CvUtils;
+import org.biopax.validator.utils.OntologiesReloadedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 
 import javax.annotation.PostConstruct;
 import java.util.HashSet;
@@ -25,7 +27,7 @@ public abstract class AbstractCvRule<D extends BioPAXElement> extends AbstractRu
   protected final Class<D> domain;
   protected final String property; // helps validate generic ControlledVocabulary instances
   protected final Set<CvRestriction> restrictions;
-  private Set<String> validTerms;
+  private volatile Set<String> validTerms; // set explicitly (otherwise, got from ontologyUtils)
   protected PropertyEditor<? super D, ?> editor;
 
   /**
@@ -48,7 +50,7 @@ public abstract class AbstractCvRule<D extends BioPAXElement> extends AbstractRu
   @PostConstruct
   public void init() {
     if (ontologyUtils != null) {
-      setValidTerms(ontologyUtils.getValidTermNames(this));
+      ontologyUtils.getValidTermNames(this); //resolves and caches the names
     } else {
       throw new IllegalStateException("ontologyUtils is NULL!");
     }
@@ -56,16 +58,33 @@ public abstract class AbstractCvRule<D extends BioPAXElement> extends AbstractRu
 
   ;
 
+  /**
+   * Resolves the valid terms once the ontologies have been reloaded
+   * (validations that are still running keep using the previous ones).
+   *
+   * @param event ontologies reloaded event
+   */
+  @EventListener
+  public void onOntologiesReloaded(OntologiesReloadedEvent event) {
+    init();
+  }
+
 
   public boolean canCheck(Object thing) {
     return domain.isInstance(thing);
   }
 
-  /* (non-Javadoc)
-   * @see org.biopax.validator.impl.CvRule#getValidTerms()
+  /**
+   * Gets the valid terms (lower case names and synonyms)
+   * from the ontologies used by the current validation
+   * (see {@link org.biopax.validator.utils.OntologyUtils#pin}),
+   * unless the terms were set explicitly.
+   *
+   * @see org.biopax.validator.api.CvRule#getValidTerms()
    */
   public Set<String> getValidTerms() {
-    return validTerms;
+    final Set<String> terms = validTerms;
+    return (terms != null) ? terms : ontologyUtils.getValidTermNames(this);
   }
 
   /* (non-Javadoc)
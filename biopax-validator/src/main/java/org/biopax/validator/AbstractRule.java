@@ -2,6 +2,7 @@ package org.biopax.validator;
 
 import org.biopax.validator.api.BaseRule;
 import org.biopax.validator.api.ValidatorUtils;
+import org.biopax.validator.api.beans.Validation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Configurable;
 
@@ -18,4 +19,10 @@ public abstract class AbstractRule<T> extends BaseRule<T> {
     this.utils = utils;
   }
 
+  @Override
+  public void error(Validation validation, Object object, String code, boolean setFixed, Object... args) {
+    super.error(validation, object, code, setFixed, args);
+    RuleMetrics.errorReported();
+  }
+
 }
\ No newline at end of file
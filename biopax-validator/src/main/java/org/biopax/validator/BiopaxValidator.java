@@ -2,10 +2,16 @@ package org.biopax.validator;
 
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -20,6 +26,7 @@ import org.biopax.paxtools.model.level3.Interaction;
 import org.biopax.paxtools.model.level3.Pathway;
 import org.biopax.paxtools.model.level3.PhysicalEntity;
 import org.biopax.paxtools.model.level3.UtilityClass;
+import org.biopax.validator.api.BaseRule;
 import org.biopax.validator.api.ValidatorException;
 import org.biopax.validator.api.ValidatorUtils;
 import org.biopax.validator.api.Rule;
@@ -27,6 +34,7 @@ import org.biopax.validator.api.Validator;
 import org.biopax.validator.api.beans.Behavior;
 import org.biopax.validator.api.beans.ErrorType;
 import org.biopax.validator.api.beans.Validation;
+import org.biopax.validator.utils.OntologyUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 
 
@@ -47,17 +55,57 @@ public class BiopaxValidator implements Validator {
 
 	private final Set<Validation> results;
 
+	// rules dispatch table: profile -> (object type, e.g., BioPAX model interface -> applicable, enabled rules)
+	private final Map<String, Map<Class<?>, List<Rule<?>>>> rulesByType;
+
 	@Autowired
 	private ValidatorUtils utils;
 
+	@Autowired(required = false)
+	private ValidatorExecutor executor;
+
+	@Autowired(required = false)
+	private RuleMetrics metrics;
+
+	@Autowired(required = false)
+	private OntologyUtils ontologyUtils;
+
+	// max. number of model elements to check in one task
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	public static final int DEFAULT_CHUNK_SIZE = 500;
+
+	// how often (ns) a waiting validation checks whether it's cancelled
+	private static final long POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private Mode mode = Mode.POOLED;
+
+	/**
+	 * Rules execution mode.
+	 */
+	public enum Mode {
+		/**
+		 * run the tasks in the shared, bounded thread pool (see {@link ValidatorExecutor})
+		 */
+		POOLED,
+		/**
+		 * run each task in a new virtual thread; the tasks of a validation
+		 * are scoped to it, i.e., all get cancelled if the validation fails or gets interrupted
+		 * (requires Java 21+; otherwise, the shared pool is used)
+		 */
+		VIRTUAL
+	}
+
 
 	public BiopaxValidator() {
 		results = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		rulesByType = new ConcurrentHashMap<>();
 	}
 
 
 	public void setRules(Set<Rule<?>> rules) {
 		this.rules = rules;
+		rulesByType.clear();
 	}
 
 
@@ -71,7 +119,123 @@ public class BiopaxValidator implements Validator {
 	}
 
 
+	public void setUtils(ValidatorUtils utils) {
+		this.utils = utils;
+		rulesByType.clear();
+	}
+
+
+	public void setExecutor(ValidatorExecutor executor) {
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Gets the thread pool shared by all the validations;
+	 * creates the default one if none was configured.
+	 *
+	 * @return executor
+	 */
+	public synchronized ValidatorExecutor getExecutor() {
+		if (executor == null) {
+			executor = new ValidatorExecutor();
+			executor.initialize();
+		}
+		return executor;
+	}
+
+
+	public RuleMetrics getMetrics() {
+		return metrics;
+	}
+
+
+	public void setMetrics(RuleMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+
+	public OntologyUtils getOntologyUtils() {
+		return ontologyUtils;
+	}
+
+
+	/**
+	 * Sets the ontologies provider; a validation uses the ontologies
+	 * that were loaded when it started, even if they get reloaded meanwhile.
+	 *
+	 * @param ontologyUtils ontologies and xref.db synonyms
+	 */
+	public void setOntologyUtils(OntologyUtils ontologyUtils) {
+		this.ontologyUtils = ontologyUtils;
+	}
+
+
+	public Mode getMode() {
+		return mode;
+	}
+
+
+	public void setMode(Mode mode) {
+		this.mode = (mode != null) ? mode : Mode.POOLED;
+	}
+
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("Illegal value for chunkSize: " + chunkSize);
+		this.chunkSize = chunkSize;
+	}
+
+
+	/**
+	 * Gets the rules that can potentially check objects of the given type,
+	 * i.e., those with the domain (see {@link BaseRule#getDomain()}) assignable from the type,
+	 * except for the rules that are disabled ({@link Behavior#IGNORE}) in the validation profile.
+	 * The list is built once per profile and type and then reused.
+	 * Rules that do not declare their domain are always included
+	 * (the rule's canCheck method is called anyway before to check an object).
+	 *
+	 * @param type object class, e.g., a BioPAX model interface or Model implementation class
+	 * @param profile validation profile name or null (default profile)
+	 * @return applicable rules
+	 */
+	List<Rule<?>> getRules(Class<?> type, String profile) {
+		final String p = (profile != null) ? profile : "";
+		return rulesByType.computeIfAbsent(p, k -> new ConcurrentHashMap<>()).computeIfAbsent(type, t -> {
+			List<Rule<?>> applicable = new ArrayList<>();
+			for (Rule<?> rule : rules) {
+				Class<?> domain = (rule instanceof BaseRule) ? ((BaseRule<?>) rule).getDomain() : Object.class;
+				if (domain.isAssignableFrom(t)
+					&& utils.getRuleBehavior(rule.getClass().getName(), profile) != Behavior.IGNORE)
+					applicable.add(rule);
+			}
+			log.debug(t.getSimpleName() + " can be checked by " + applicable.size()
+				+ " rules (profile: " + profile + ")");
+			return Collections.unmodifiableList(applicable);
+		});
+	}
+
+
 	public void validate(final Validation validation) {
+		validate(validation, 0, TimeUnit.MILLISECONDS);
+	}
+
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Once the time is out or {@link Validation#cancel()} is called,
+	 * the pending rule tasks are cancelled, the running ones get interrupted
+	 * (if a rule ignores that, it still finishes in background, in the thread pool),
+	 * and the partial results are returned.
+	 */
+	public void validate(final Validation validation, long timeout, TimeUnit unit) {
 		assert(validation != null);
 
 		if (validation == null || validation.getModel() == null) {
@@ -90,6 +254,7 @@ public class BiopaxValidator implements Validator {
 		if (validation.isMaxErrorsSet()
 			&& validation.getNotFixedErrors() > validation.getMaxErrors()) {
 			log.info("Errors limit (" + validation.getMaxErrors() + ") is exceeded; exitting...");
+			validation.setIncomplete(true);
 			return;
 		}
 
@@ -106,56 +271,36 @@ public class BiopaxValidator implements Validator {
 
 		assert(model != null && model.getLevel() == BioPAXLevel.L3);
 
-		// Check/fix Rule<? extends BioPAXElement> rules concurrently (low risk of getting CMEx), 
-		// because they normally do minor changes and simply cannot add/remove
-		// elements in the Model (though, can alter a property of any biopax object)
-		ExecutorService exec = Executors.newFixedThreadPool(100);
+		final Run run = new Run(validation, (timeout > 0) ? unit.toNanos(timeout) : 0L, ontologyUtils);
 
-		// First, check/fix individual objects
-		// (no need to copy; these rules cannot add/remove objects in model)
-		for (BioPAXElement el : model.getObjects())
-		{
-			// rules can check/fix specific elements
-//			for (Rule rule : rules) {				
-//				Behavior behavior = utils.getRuleBehavior(rule.getClass().getName(), validation.getProfile());    	
-//		        if (behavior == Behavior.IGNORE) 
-//		        	continue; // skip					
-//				execute(exec, rule, validation, (Object) el);
-//			}
-			//sequentially apply all (capable,enabled) rules to the object in a separate thread
-			execute(exec, rules, validation, (Object) el);
-		}
-		exec.shutdown(); //end accepting new jobs
+		// in the VIRTUAL mode, all the tasks of this validation run in their own (scoped) executor
+		final ExecutorService pool = getExecutor().getThreadPoolExecutor();
+		final ExecutorService exec = (mode == Mode.VIRTUAL) ? newVirtualThreadScope() : pool;
 		try {
-			exec.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
-		} catch (InterruptedException e) {
-			throw new ValidatorException("Interrupted unexpectedly!");
+			checkAll(run, model, exec);
+		} finally {
+			if (exec != pool)
+				exec.shutdownNow(); //close the scope
 		}
 
-		//Second, apply all Rule<Model> rules -
-		//run Rule<Model> rules concurrently
-		exec = Executors.newFixedThreadPool(50);
-		for (Rule rule : rules)
-		{
-			Behavior behavior = utils.getRuleBehavior(rule.getClass().getName(),
-        validation.getProfile());
-			if (behavior != Behavior.IGNORE)
-				execute(exec, rule, validation, model);
-		}
-		exec.shutdown(); //end accepting jobs
-		try {
-			exec.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
-		} catch (InterruptedException e) {
-			throw new ValidatorException("Interrupted unexpectedly!");
+		if (validation.isIncomplete()) {
+			// remaining checks were skipped or cancelled
+			log.info("Stopped checking " + validation.getDescription() + ": " + run.reason()
+				+ "; unfinished rules: " + validation.getUnfinishedRules().size());
+		} else {
+			log.debug("All rules checked!");
 		}
 
-		log.debug("All rules checked!");
-
 		if (validation.isFix()) {
-			// discover, explicitly add child elements to the model
-			model.repair();
-			// remove all dangling utility class objects
-			ModelUtils.removeObjectsIfDangling(model, UtilityClass.class);
+			if (run.isAborted()) {
+				// some rules might be still running (and modifying the model)
+				log.warn("Skip repairing the model after the validation was aborted: " + run.reason());
+			} else {
+				// discover, explicitly add child elements to the model
+				model.repair();
+				// remove all dangling utility class objects
+				ModelUtils.removeObjectsIfDangling(model, UtilityClass.class);
+			}
 		}
 
 		// add comments and some statistics
@@ -168,66 +313,259 @@ public class BiopaxValidator implements Validator {
 		validation.addComment("number of pathways : "
 			+ model.getObjects(Pathway.class).size());
 
-		//update all error counts (total, fixed, notfixed)
-		for(ErrorType errorType : validation.getError()) {
-			errorType.setTotalCases(errorType.countErrors(null, null, false));
-			errorType.setNotFixedCases(errorType.countErrors(null, null, true));
-		}
-		validation.setNotFixedProblems(validation.countErrors(null, null, null, null, false, true));
-		validation.setNotFixedErrors(validation.countErrors(null, null, null, null, true, true));
-		validation.setTotalProblemsFound(validation.countErrors(null, null, null, null, false, false));
-		validation.setSummary("different types of problem: " + validation.getError().size());
+		//error counts (total, fixed, notfixed) are updated as the cases get reported
+		validation.setSummary("different types of problem: " + validation.getError().size()
+			+ ((validation.isIncomplete()) ? "; validation was truncated: " + run.reason() : ""));
 	}
 
-	private void execute(ExecutorService exec, final Rule rule,
-											 final Validation validation, final Object obj)
-	{
-		exec.execute(new Runnable() {
-			@SuppressWarnings("unchecked") //obj can be either Model or a BPE
-			public void run() {
-				try {
-					if (rule.canCheck(obj))
-						rule.check(validation, obj);
-				} catch (Throwable t) {
-					//if we're here, there is probably a bug in the rule or validator!
-					String id = validation.identify(obj);
-					log.fatal(rule + ".check(" + id
-						+ ") threw the exception: " + t.toString(), t);
-					// anyway, report it almost normally (for a user to see this in the results too)
-					validation.addError(utils.createError(id, "exception",
-						rule.getClass().getName(), null, false, t));
+	/*
+	 * Applies all the capable and enabled rules: first - to each element, then - to the model.
+	 * Stops early (skips the pending work) once the validation's errors limit is reached,
+	 * the validation is cancelled, or the time is out; then marks the validation incomplete
+	 * and lists the rules that were not applied to all the objects.
+	 */
+	private void checkAll(final Run run, final Model model, final ExecutorService exec) {
+		final Validation validation = run.validation;
+		final String profile = validation.getProfile();
+		// Check/fix Rule<? extends BioPAXElement> rules concurrently (low risk of getting CMEx), 
+		// because they normally do minor changes and simply cannot add/remove
+		// elements in the Model (though, can alter a property of any biopax object)
+		final List<Future<?>> tasks = new ArrayList<>();
+
+		// First, check/fix individual objects
+		// (no need to copy; these rules cannot add/remove objects in model)
+		final List<BioPAXElement> elements = new ArrayList<>(model.getObjects());
+		final int numChunks = (elements.size() + chunkSize - 1) / chunkSize;
+		// no. objects already checked in each chunk (to find unfinished rules, if stopped early)
+		final AtomicIntegerArray progress = new AtomicIntegerArray(numChunks);
+		for (int c = 0; c < numChunks; c++)
+		{
+			//sequentially apply all (capable,enabled) rules to each object in the chunk in a separate thread
+			final int chunkIdx = c;
+			final List<BioPAXElement> chunk = elements.subList(c * chunkSize,
+				Math.min((c + 1) * chunkSize, elements.size()));
+			tasks.add(submit(exec, tasks, run, () -> {
+				for (BioPAXElement el : chunk) {
+					if (run.isOver())
+						return; //no more errors will be saved anyway, or no time left
+					for (Rule<?> rule : getRules(el.getModelInterface(), profile)) {
+						check(rule, validation, el);
+					}
+					progress.incrementAndGet(chunkIdx);
 				}
+			}));
+		}
+		await(tasks, run);
+
+		final Set<Rule<?>> unfinished = new HashSet<>();
+		if (run.isOver()) {
+			for (int c = 0; c < numChunks; c++) {
+				final int end = Math.min((c + 1) * chunkSize, elements.size());
+				for (int i = c * chunkSize + progress.get(c); i < end; i++)
+					unfinished.addAll(getRules(elements.get(i).getModelInterface(), profile));
 			}
-		});
+		}
+
+		//Second, apply all Rule<Model> rules -
+		//run Rule<Model> rules concurrently
+		tasks.clear();
+		final List<Rule<?>> modelRules = getRules(model.getClass(), profile);
+		final Set<Rule<?>> finished = ConcurrentHashMap.newKeySet();
+		for (Rule<?> rule : modelRules)
+		{
+			if (run.isOver())
+				break;
+			tasks.add(submit(exec, tasks, run, () -> {
+				if (!run.isOver()) {
+					check(rule, validation, model);
+					finished.add(rule);
+				}
+			}));
+		}
+		await(tasks, run);
+
+		if (run.isOver()) {
+			for (Rule<?> rule : modelRules)
+				if (!finished.contains(rule))
+					unfinished.add(rule);
+		}
+
+		if (run.isOver()) {
+			validation.setIncomplete(true);
+			for (Rule<?> rule : unfinished)
+				validation.getUnfinishedRules().add(rule.getClass().getName());
+		}
 	}
 
-	private void execute(ExecutorService exec, final Set<Rule<?>> rules,
-											 final Validation validation, final Object obj)
+	/*
+	 * Submits the task (to run with the ontologies pinned for this validation run);
+	 * if the executor rejects it (is shut down), cancels the tasks submitted so far
+	 * and fails the validation.
+	 */
+	private Future<?> submit(final ExecutorService exec, final Collection<Future<?>> tasks,
+	                         final Run run, final Runnable task)
 	{
-		exec.execute(new Runnable() {
-			@SuppressWarnings("unchecked") //obj can be either Model or a BPE
-			public void run() {
-				for(Rule rule : rules) {
-					Behavior behavior = utils.getRuleBehavior(rule.getClass().getName(),
-            validation.getProfile());
-					if (behavior == Behavior.IGNORE)
-						continue; // skip disabled rule
-
-					try {
-						if (rule.canCheck(obj))
-							rule.check(validation, obj);
-					} catch (Throwable t) {
-						//if we're here, there is probably a bug in the rule or validator!
-						String id = validation.identify(obj);
-						log.fatal(rule + ".check(" + id
-							+ ") threw the exception: " + t.toString(), t);
-						// anyway, report it almost normally (for a user to see this in the results too)
-						validation.addError(utils.createError(id, "exception",
-							rule.getClass().getName(), null, false, t));
+		final Runnable pinned = (run.ontologies == null) ? task : () -> {
+			final OntologyUtils.Store previous = run.ontologyUtils.pin(run.ontologies);
+			try {
+				task.run();
+			} finally {
+				run.ontologyUtils.pin(previous);
+			}
+		};
+		try {
+			return exec.submit(pinned);
+		} catch (RejectedExecutionException e) {
+			cancel(tasks);
+			throw new ValidatorException(e);
+		}
+	}
+
+	/*
+	 * Creates a new virtual-thread-per-task executor (Java 21+), or falls back to the shared pool.
+	 */
+	private ExecutorService newVirtualThreadScope() {
+		try {
+			return (ExecutorService) Executors.class
+				.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			log.warn("Virtual threads are not supported by this JVM; using the shared thread pool");
+			return getExecutor().getThreadPoolExecutor();
+		}
+	}
+
+	/*
+	 * Applies the rule to the object; measures the check if the metrics are enabled.
+	 */
+	private void check(final Rule<?> rule, final Validation validation, final Object obj) {
+		final RuleMetrics m = metrics;
+		if (m == null || !m.isEnabled()) {
+			doCheck(rule, validation, obj);
+			return;
+		}
+
+		m.begin();
+		final long start = System.nanoTime();
+		try {
+			doCheck(rule, validation, obj);
+		} finally {
+			m.end(rule, (obj instanceof BioPAXElement)
+				? ((BioPAXElement) obj).getModelInterface() : obj.getClass(), System.nanoTime() - start);
+		}
+	}
+
+	@SuppressWarnings("unchecked") //obj can be either Model or a BPE
+	private void doCheck(final Rule rule, final Validation validation, final Object obj) {
+		try {
+			if (rule.canCheck(obj))
+				rule.check(validation, obj);
+		} catch (Throwable t) {
+			//if we're here, there is probably a bug in the rule or validator!
+			String id = validation.identify(obj);
+			log.fatal(rule + ".check(" + id
+				+ ") threw the exception: " + t.toString(), t);
+			// anyway, report it almost normally (for a user to see this in the results too)
+			validation.addError(utils.createError(id, "exception",
+				rule.getClass().getName(), null, false, t));
+		}
+	}
+
+	/*
+	 * Waits for all the tasks (of the current validation phase) to complete;
+	 * cancels not yet started ones as soon as the errors limit is reached,
+	 * or stops waiting (and interrupts the tasks) if the validation
+	 * is cancelled or the time is out.
+	 */
+	private void await(Collection<Future<?>> tasks, Run run) {
+		try {
+			for (Future<?> task : tasks) {
+				try {
+					while (true) {
+						if (run.isAborted()) {
+							cancel(tasks);
+							return;
+						}
+						if (run.validation.isMaxErrorsReached()) {
+							// running tasks will exit by themselves (they check the limit too)
+							for (Future<?> t : tasks)
+								t.cancel(false);
+						}
+						try {
+							// wake up now and then to check for the cancellation request
+							task.get(Math.min(run.timeLeft(), POLL_INTERVAL), TimeUnit.NANOSECONDS);
+							break;
+						} catch (TimeoutException e) {
+							//not done yet
+						}
+					}
+				} catch (CancellationException e) {
+					if (!run.isOver()) {
+						// cancelled by someone else (e.g., the executor was shut down)
+						cancel(tasks);
+						throw new ValidatorException("A rule task was cancelled unexpectedly");
 					}
+					//ok (cancelled due to the errors limit)
 				}
 			}
-		});
+		} catch (InterruptedException e) {
+			cancel(tasks);
+			throw new ValidatorException("Interrupted unexpectedly!");
+		} catch (ExecutionException e) {
+			//should not happen, for check(..) catches everything
+			cancel(tasks);
+			throw new ValidatorException(e);
+		}
+	}
+
+	private void cancel(Collection<Future<?>> tasks) {
+		for (Future<?> task : tasks)
+			task.cancel(true);
+	}
+
+	/*
+	 * A validation run state: the deadline, the reasons to stop early,
+	 * and the ontologies to use (captured at the start, to not mix terms
+	 * from the old and new ones if the ontologies get reloaded during the run).
+	 */
+	private static final class Run {
+		final Validation validation;
+		final boolean timed;
+		final long deadline; //System.nanoTime() based
+		final OntologyUtils ontologyUtils;
+		final OntologyUtils.Store ontologies;
+
+		Run(Validation validation, long timeoutNanos, OntologyUtils ontologyUtils) {
+			this.validation = validation;
+			this.timed = timeoutNanos > 0;
+			this.deadline = System.nanoTime() + timeoutNanos;
+			this.ontologyUtils = ontologyUtils;
+			this.ontologies = (ontologyUtils != null) ? ontologyUtils.getStore() : null;
+		}
+
+		long timeLeft() {
+			return (timed) ? deadline - System.nanoTime() : Long.MAX_VALUE;
+		}
+
+		// cancelled or no time left (then, we don't wait for the running tasks)
+		boolean isAborted() {
+			return validation.isCancelled() || timeLeft() <= 0;
+		}
+
+		// aborted or there is no point to continue
+		boolean isOver() {
+			return validation.isMaxErrorsReached() || isAborted();
+		}
+
+		String reason() {
+			if (validation.isCancelled())
+				return "cancelled";
+			else if (timed && timeLeft() <= 0)
+				return "time is out";
+			else if (validation.isMaxErrorsReached())
+				return "errors limit (" + validation.getMaxErrors() + ") reached";
+			else
+				return "some rules did not finish";
+		}
 	}
 
 
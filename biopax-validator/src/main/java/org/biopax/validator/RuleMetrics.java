@@ -0,0 +1,156 @@
+package org.biopax.validator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.biopax.validator.api.Rule;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Per-rule execution statistics (no. checks, total and max time,
+ * no. errors reported), by rule and type of the checked object,
+ * collected by {@link BiopaxValidator} across all the validations
+ * while enabled (disabled by default).
+ *
+ * Published as a JMX bean (see appContext-validator.xml).
+ *
+ * @author rodche
+ */
+@ManagedResource(objectName = "org.biopax.validator:name=ruleMetrics",
+	description = "BioPAX Validator rules execution statistics")
+public class RuleMetrics {
+
+	// the no. errors reported by the rule that is being checked in the current thread
+	private static final ThreadLocal<int[]> ERRORS = new ThreadLocal<>();
+
+	private volatile boolean enabled;
+
+	// rule class name -> checked object type -> stats
+	private final Map<String, Map<Class<?>, Stats>> stats = new ConcurrentHashMap<>();
+
+	/**
+	 * Counters for a rule applied to objects of some type.
+	 */
+	public static final class Stats {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final LongAdder errors = new LongAdder();
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public long getTotalNanos() {
+			return totalNanos.sum();
+		}
+
+		public long getMaxNanos() {
+			return maxNanos.get();
+		}
+
+		public long getErrors() {
+			return errors.sum();
+		}
+	}
+
+	@ManagedAttribute(description = "Whether the rule checks are measured")
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@ManagedAttribute
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Starts counting errors reported in the current thread
+	 * (by the rule that is about to check an object).
+	 */
+	void begin() {
+		ERRORS.set(new int[1]);
+	}
+
+	/**
+	 * Stops counting errors in the current thread and
+	 * adds the check's time and results to the statistics.
+	 *
+	 * @param rule the rule that checked the object
+	 * @param type checked object's type
+	 * @param nanos time the check took
+	 */
+	void end(Rule<?> rule, Class<?> type, long nanos) {
+		final int[] errs = ERRORS.get();
+		ERRORS.remove();
+		final Stats s = stats
+			.computeIfAbsent(rule.getClass().getName(), k -> new ConcurrentHashMap<>())
+			.computeIfAbsent(type, k -> new Stats());
+		s.count.increment();
+		s.totalNanos.add(nanos);
+		s.maxNanos.accumulateAndGet(nanos, Math::max);
+		if (errs != null)
+			s.errors.add(errs[0]);
+	}
+
+	/**
+	 * Counts an error case reported by the rule being checked
+	 * in the current thread (does nothing when not measured).
+	 */
+	public static void errorReported() {
+		final int[] errs = ERRORS.get();
+		if (errs != null)
+			errs[0]++;
+	}
+
+	/**
+	 * Gets the statistics of the rule.
+	 *
+	 * @param ruleClassName rule class name
+	 * @return stats by checked object type (empty map if none collected)
+	 */
+	public Map<Class<?>, Stats> getStats(String ruleClassName) {
+		Map<Class<?>, Stats> m = stats.get(ruleClassName);
+		return (m != null) ? m : new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Rule checks statistics, most time-consuming first, one line per rule and object type:
+	 * rule, type, no. checks, total time (ms), max time (ms), no. errors reported.
+	 *
+	 * @return lines of tab-separated values
+	 */
+	@ManagedAttribute(description = "rule, type, count, total ms, max ms, errors")
+	public String[] getReport() {
+		final List<Object[]> rows = new ArrayList<>();
+		for (Map.Entry<String, Map<Class<?>, Stats>> r : stats.entrySet())
+			for (Map.Entry<Class<?>, Stats> t : r.getValue().entrySet())
+				rows.add(new Object[]{r.getKey(), t.getKey(), t.getValue()});
+		rows.sort(Comparator.comparingLong((Object[] row) -> ((Stats) row[2]).getTotalNanos()).reversed());
+
+		final String[] lines = new String[rows.size()];
+		for (int i = 0; i < lines.length; i++) {
+			Object[] row = rows.get(i);
+			Stats s = (Stats) row[2];
+			lines[i] = row[0] + "\t" + ((Class<?>) row[1]).getSimpleName() + "\t" + s.getCount()
+				+ "\t" + TimeUnit.NANOSECONDS.toMillis(s.getTotalNanos())
+				+ "\t" + TimeUnit.NANOSECONDS.toMillis(s.getMaxNanos())
+				+ "\t" + s.getErrors();
+		}
+		return lines;
+	}
+
+	@ManagedOperation(description = "Clears the statistics")
+	public void reset() {
+		stats.clear();
+	}
+
+}
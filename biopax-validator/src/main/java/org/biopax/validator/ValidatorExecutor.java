@@ -0,0 +1,95 @@
+package org.biopax.validator;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * The long-lived, bounded thread pool shared by all the validations
+ * run by a {@link BiopaxValidator} instance.
+ *
+ * By default, it's sized to the number of available processors
+ * and uses a bounded tasks queue; when the queue is full,
+ * the submitting (validation) thread runs the task itself
+ * (unless the pool is shut down - then the task is rejected).
+ *
+ * Published as a JMX bean (see appContext-validator.xml).
+ *
+ * @author rodche
+ */
+@ManagedResource(objectName = "org.biopax.validator:name=validatorExecutor",
+	description = "BioPAX Validator thread pool")
+public class ValidatorExecutor extends ThreadPoolTaskExecutor {
+	private static final long serialVersionUID = 1L;
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+	public ValidatorExecutor() {
+		int n = Runtime.getRuntime().availableProcessors();
+		setCorePoolSize(n);
+		setMaxPoolSize(n);
+		setQueueCapacity(DEFAULT_QUEUE_CAPACITY);
+		setThreadNamePrefix("validator-");
+		setDaemon(true); //do not prevent the console app from exiting
+		setRejectedExecutionHandler(new CallerRunsUnlessShutdown());
+	}
+
+	/*
+	 * Like ThreadPoolExecutor.CallerRunsPolicy, but throws RejectedExecutionException
+	 * after shutdown instead of silently discarding the task (a validation would wait for it forever).
+	 */
+	private static final class CallerRunsUnlessShutdown implements RejectedExecutionHandler {
+		public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+			if (executor.isShutdown())
+				throw new RejectedExecutionException("Validator executor is shut down");
+			task.run();
+		}
+	}
+
+	/**
+	 * The number of tasks waiting in the queue.
+	 *
+	 * @return queue depth
+	 */
+	@ManagedAttribute(description = "Tasks waiting in the queue")
+	public int getQueueSize() {
+		return getThreadPoolExecutor().getQueue().size();
+	}
+
+	/**
+	 * The approximate total number of tasks that have completed execution.
+	 *
+	 * @return number of completed tasks
+	 */
+	@ManagedAttribute(description = "Tasks completed so far (approximate)")
+	public long getCompletedTaskCount() {
+		return getThreadPoolExecutor().getCompletedTaskCount();
+	}
+
+	/**
+	 * The approximate number of threads that are executing tasks.
+	 *
+	 * @return number of active threads
+	 */
+	@Override
+	@ManagedAttribute(description = "Threads executing tasks now (approximate)")
+	public int getActiveCount() {
+		return super.getActiveCount();
+	}
+
+	/**
+	 * The current number of threads in the pool.
+	 *
+	 * @return pool size
+	 */
+	@Override
+	@ManagedAttribute(description = "Threads in the pool")
+	public int getPoolSize() {
+		return super.getPoolSize();
+	}
+
+}
@@ -1,6 +1,8 @@
 package org.biopax.validator.rules;
 
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -38,6 +40,13 @@ public class BindingFeatureExtraRules extends AbstractRule<Model> {
 						&& a.getBindsTo().isEquivalent(b.getBindsTo());
 				return !a.isEquivalent(b) && ab;
 			}
+
+			@Override
+			protected Collection<?> keys(BindingFeature bf) {
+				// equivalent bindsTo features have the same equivalence code
+				return (bf.getBindsTo() == null) ? Collections.emptySet()
+					: Collections.singleton(bf.getBindsTo().equivalenceCode());
+			}
 		};
 		
 		Set<Set<BindingFeature>> violations 
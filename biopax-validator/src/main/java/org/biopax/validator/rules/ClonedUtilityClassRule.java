@@ -1,14 +1,30 @@
 package org.biopax.validator.rules;
 
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.biopax.paxtools.controller.ModelUtils;
 import org.biopax.paxtools.model.BioPAXLevel;
 import org.biopax.paxtools.model.Model;
+import org.biopax.paxtools.model.level3.BioSource;
+import org.biopax.paxtools.model.level3.ControlledVocabulary;
+import org.biopax.paxtools.model.level3.EntityReference;
+import org.biopax.paxtools.model.level3.PhysicalEntity;
+import org.biopax.paxtools.model.level3.SequenceInterval;
+import org.biopax.paxtools.model.level3.SequenceSite;
+import org.biopax.paxtools.model.level3.SimplePhysicalEntity;
+import org.biopax.paxtools.model.level3.Stoichiometry;
+import org.biopax.paxtools.model.level3.UnificationXref;
 import org.biopax.paxtools.model.level3.UtilityClass;
+import org.biopax.paxtools.model.level3.XReferrable;
+import org.biopax.paxtools.model.level3.Xref;
 import org.biopax.validator.AbstractRule;
 import org.biopax.validator.api.beans.Validation;
 import org.biopax.validator.utils.Cluster;
@@ -29,6 +45,11 @@ public class ClonedUtilityClassRule extends	AbstractRule<Model> {
 			public boolean match(UtilityClass a, UtilityClass b) {
 				return !a.equals(b) && a.isEquivalent(b);
 			}
+
+			@Override
+			protected Collection<?> keys(UtilityClass u) {
+				return equivalenceKeys(u);
+			}
 		};
 		
 		Set<Set<UtilityClass>> clusters 
@@ -64,6 +85,80 @@ public class ClonedUtilityClassRule extends	AbstractRule<Model> {
 		
 	}
 
+	/*
+	 * Structural keys, such that equivalent objects have at least one key in common
+	 * (equivalent objects are always of the same type):
+	 * (type, db, id) for xrefs, (type, term) and (type, xref key) for CVs,
+	 * (type, unification xref key) for biosources (taxonomy) and entity references,
+	 * (type, position, status) for sequence sites, (type, begin, end) for intervals,
+	 * (type, coefficient, physical entity key) for stoichiometry,
+	 * and just the type for other utility classes or when there are no such properties.
+	 */
+	static Collection<?> equivalenceKeys(UtilityClass u) {
+		final Class<?> type = u.getModelInterface();
+		if (u instanceof Xref) {
+			return Collections.singleton(xrefKey((Xref) u));
+		} else if (u instanceof ControlledVocabulary) {
+			ControlledVocabulary cv = (ControlledVocabulary) u;
+			Set<List<?>> keys = new HashSet<List<?>>();
+			for (String term : cv.getTerm())
+				keys.add(Arrays.asList(type, term.toLowerCase()));
+			for (Xref x : cv.getXref())
+				keys.add(Arrays.asList(type, xrefKey(x)));
+			if (keys.isEmpty())
+				keys.add(Collections.singletonList(type));
+			return keys;
+		} else if (u instanceof BioSource || u instanceof EntityReference) {
+			// equivalent ones have equivalent unification xrefs
+			Set<List<?>> keys = new HashSet<List<?>>();
+			for (Xref x : ((XReferrable) u).getXref())
+				if (x instanceof UnificationXref)
+					keys.add(Arrays.asList(type, xrefKey(x)));
+			if (keys.isEmpty())
+				keys.add(Collections.singletonList(type));
+			return keys;
+		} else if (u instanceof SequenceSite) {
+			return Collections.singleton(Arrays.asList(type, siteKey((SequenceSite) u)));
+		} else if (u instanceof SequenceInterval) {
+			SequenceInterval si = (SequenceInterval) u;
+			return Collections.singleton(Arrays.asList(type,
+				siteKey(si.getSequenceIntervalBegin()), siteKey(si.getSequenceIntervalEnd())));
+		} else if (u instanceof Stoichiometry) {
+			Stoichiometry st = (Stoichiometry) u;
+			// (+0.0f makes -0.0 and 0.0, which are equal coefficients, the same key)
+			Float coefficient = st.getStoichiometricCoefficient() + 0.0f;
+			Set<List<?>> keys = new HashSet<List<?>>();
+			for (Object key : physicalEntityKeys(st.getPhysicalEntity()))
+				keys.add(Arrays.asList(type, coefficient, key));
+			return keys;
+		} else {
+			return Collections.singleton(type);
+		}
+	}
+
+	private static List<?> siteKey(SequenceSite site) {
+		return (site == null) ? null : Arrays.asList(site.getSequencePosition(), site.getPositionStatus());
+	}
+
+	/*
+	 * Equivalent simple physical entities have equivalent entity references;
+	 * otherwise, equivalent physical entities are of the same type.
+	 */
+	private static Collection<?> physicalEntityKeys(PhysicalEntity pe) {
+		if (pe == null)
+			return Collections.singleton(null);
+		else if (pe instanceof SimplePhysicalEntity && ((SimplePhysicalEntity) pe).getEntityReference() != null)
+			return equivalenceKeys(((SimplePhysicalEntity) pe).getEntityReference());
+		else
+			return Collections.singleton(pe.getModelInterface());
+	}
+
+	private static List<?> xrefKey(Xref x) {
+		return Arrays.asList(x.getModelInterface(),
+			(x.getDb() == null) ? null : x.getDb().toLowerCase(),
+			(x.getId() == null) ? null : x.getId().toLowerCase());
+	}
+
 	public boolean canCheck(Object thing) {
 		return thing instanceof Model 
 			&& ((Model)thing).getLevel() == BioPAXLevel.L3;
@@ -1,13 +1,17 @@
 package org.biopax.validator.rules;
 
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.biopax.paxtools.model.BioPAXElement;
 import org.biopax.paxtools.model.Model;
 import org.biopax.validator.AbstractRule;
 import org.biopax.validator.api.beans.Validation;
-import org.biopax.validator.utils.Cluster;
 import org.springframework.stereotype.Component;
 
 /**
@@ -18,25 +22,28 @@ import org.springframework.stereotype.Component;
 @Component
 public class DuplicateIdCaseInsensitiveRule extends	AbstractRule<Model> {
 	
-	public void check(final Validation validation, Model model) {		
-		Cluster<BioPAXElement> algorithm = new Cluster<BioPAXElement>() {
-			@Override
-			public boolean match(BioPAXElement a, BioPAXElement b) {
-				return !a.equals(b) && a.getUri().equalsIgnoreCase(b.getUri());
+	public void check(final Validation validation, Model model) {
+		// single pass: the first object per lower-case URI, and the groups of "duplicates" if any
+		final Map<String, BioPAXElement> first = new HashMap<String, BioPAXElement>();
+		final Map<String, Set<BioPAXElement>> clusters = new LinkedHashMap<String, Set<BioPAXElement>>();
+		for (BioPAXElement e : model.getObjects()) {
+			String key = e.getUri().toLowerCase(Locale.ROOT);
+			BioPAXElement u = first.putIfAbsent(key, e);
+			if (u != null && !u.equals(e)) {
+				Set<BioPAXElement> duplicates = clusters.get(key);
+				if (duplicates == null) {
+					duplicates = new HashSet<BioPAXElement>();
+					clusters.put(key, duplicates);
+				}
+				duplicates.add(e);
 			}
-		};
-		
-		Set<Set<BioPAXElement>> clasters 
-			= algorithm.cluster(model.getObjects(), Integer.MAX_VALUE);
+		}
 		
-		// report the error once for each cluster
-		for (Set<BioPAXElement> duplicates : clasters) {
-			if(duplicates.size() > 1) {
-				BioPAXElement u = duplicates.iterator().next();
-				duplicates.remove(u); // keep the first element
-				error(validation, u, "duplicate.id.ignoringcase", false, 
-					duplicates, u.getModelInterface().getSimpleName());
-			}
+		// report the error once for each cluster (the first element is not in the set)
+		for (Map.Entry<String, Set<BioPAXElement>> entry : clusters.entrySet()) {
+			BioPAXElement u = first.get(entry.getKey());
+			error(validation, u, "duplicate.id.ignoringcase", false, 
+				entry.getValue(), u.getModelInterface().getSimpleName());
 		}
 	}
 
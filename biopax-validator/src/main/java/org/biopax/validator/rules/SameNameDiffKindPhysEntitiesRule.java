@@ -1,6 +1,7 @@
 package org.biopax.validator.rules;
 
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -36,8 +37,18 @@ public class SameNameDiffKindPhysEntitiesRule extends
 						return !a.equals(b) 
 							&& a.getEntityReference() != null
 							&& !a.getName().isEmpty() && !b.getName().isEmpty()
-							&& !a.getEntityReference().isEquivalent(b.getEntityReference())
-							&& CollectionUtils.containsAny(a.getName(), b.getName());
+							&& a.getEntityReference() != b.getEntityReference()
+							&& CollectionUtils.containsAny(a.getName(), b.getName())
+							&& !a.getEntityReference().isEquivalent(b.getEntityReference());
+					}
+
+					// inverted index: only the entities that share a name get compared
+					@Override
+					protected Collection<?> keys(SimplePhysicalEntity pe) {
+						Set<String> names = new HashSet<String>();
+						for (String name : pe.getName())
+							names.add(name.trim().toLowerCase());
+						return names;
 					}
 			};
 			
@@ -1,82 +1,154 @@
 package org.biopax.validator.utils;
 
 import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 public abstract class Cluster<T> {
-	
+
+	// the bucket of objects that have no blocking keys
+	private static final Object NO_KEYS = new Object();
+
 	/**
 	 * Implemented in concrete subclasses.
 	 * Must be "symmetric"; may be "transitive" or not (you decide) -
-	 * 
+	 *
 	 * @param a an object
 	 * @param b another object of the same type
 	 * @return true/false
 	 */
 	public abstract boolean match(T a, T b);
-	
 
 	/**
-	 * Puts elements into sets of "similar" ones. 
+	 * Blocking keys of the object (e.g., lower-case URI, name tokens, equivalence hash code):
+	 * only objects that have a key in common get compared with {@link #match(Object, Object)}.
+	 * So, if match(a,b) can be true, then a and b must have a common key.
+	 *
+	 * By default (null), the object goes to a separate bucket, i.e., gets compared
+	 * with all the other objects without keys but not with those that have keys
+	 * (so, either return null for all the objects - no blocking, or never).
+	 *
+	 * @param element an object
+	 * @return keys, or null (no keys)
+	 */
+	protected Collection<?> keys(T element) {
+		return null;
+	}
+
+	/**
+	 * Creates a clustering algorithm from the match and blocking keys functions.
+	 *
+	 * @see #match(Object, Object)
+	 * @see #keys(Object)
+	 *
+	 * @param match matching function
+	 * @param keys blocking keys function (may return null, see {@link #keys(Object)})
+	 * @param <T> type of objects
+	 * @return clustering algorithm
+	 */
+	public static <T> Cluster<T> of(final BiPredicate<? super T, ? super T> match,
+	                                final Function<? super T, ? extends Collection<?>> keys)
+	{
+		return new Cluster<T>() {
+			@Override
+			public boolean match(T a, T b) {
+				return match.test(a, b);
+			}
+
+			@Override
+			protected Collection<?> keys(T element) {
+				return keys.apply(element);
+			}
+		};
+	}
+
+	/**
+	 * Puts elements into sets of "similar" ones.
 	 * Every object belongs to exactly one cluster.
 	 * Clusters contain at least one object.
-	 * 
+	 *
 	 * If concrete {@link #match(Object, Object)} method
 	 * is not transitive, this produces such groups, where,
 	 * match(A,B) is not necessarily true for all pairs in
 	 * the same cluster, but there exists Z, such as,
 	 * match(X,Z) and match(Y,Z) are true.
-	 * 
+	 *
+	 * Objects are compared only within the same {@link #keys(Object)} bucket
+	 * (and not at all once they are in the same cluster); matching ones get merged
+	 * (union-find), so it's linear in the no. objects when the buckets are small.
+	 *
 	 * @see #match(Object, Object)
-	 * 
+	 * @see #keys(Object)
+	 *
 	 * @param elements objects
 	 * @param clusterMaxSize max. size of a cluster
 	 * @return groups of objects
 	 */
 	public final Set<Set<T>> cluster(Collection<T> elements, int clusterMaxSize) {
-		Set<Set<T>> clusters = new HashSet<Set<T>>();
-		for (T u : new HashSet<T>(elements)) {
-			Set<Set<T>> toMerge = new HashSet<Set<T>>();
-			for (Set<T> clu : clusters) {
-				if(!clu.isEmpty() && matchAny(u, clu)) {
-					clu.add(u);
-					toMerge.add(clu);
-				}
-			}
-			
-			if(toMerge.isEmpty()) { //create a new cluster 
-				Set<T> group = new HashSet<T>();
-				group.add(u);
-				clusters.add(group);
-			} else if (toMerge.size() > 1) {
-				// merge several groups into the first one
-				Iterator<Set<T>> it = toMerge.iterator();
-				Set<T> group = it.next();
-				assert !group.isEmpty();
-				while(it.hasNext()) {
-					Set<T> g = it.next();
-					group.addAll(g);
-					g.clear();
+		final List<T> items = new ArrayList<T>(new LinkedHashSet<T>(elements));
+		final int n = items.size();
+		final int[] parent = new int[n];
+		for (int i = 0; i < n; i++)
+			parent[i] = i;
+
+		// hash blocking
+		final Map<Object, List<Integer>> buckets = new HashMap<Object, List<Integer>>();
+		for (int i = 0; i < n; i++) {
+			Collection<?> keys = keys(items.get(i));
+			if (keys == null)
+				keys = Collections.singleton(NO_KEYS);
+			for (Object key : keys) {
+				List<Integer> bucket = buckets.get(key);
+				if (bucket == null) {
+					bucket = new ArrayList<Integer>(2);
+					buckets.put(key, bucket);
 				}
+				bucket.add(i);
 			}
 		}
-		
-		//remove empty groups
-		Set<Set<T>> result = new HashSet<Set<T>>();
-		for(Set<T> clu : clusters) {
-			if(!clu.isEmpty())
-				result.add(clu);
+
+		for (List<Integer> bucket : buckets.values()) {
+			for (int a = 0; a < bucket.size(); a++)
+				for (int b = a + 1; b < bucket.size(); b++)
+					tryUnion(items, parent, bucket.get(a), bucket.get(b));
 		}
-		
-		return result;
+
+		final Map<Integer, Set<T>> clusters = new HashMap<Integer, Set<T>>();
+		for (int i = 0; i < n; i++) {
+			int root = find(parent, i);
+			Set<T> group = clusters.get(root);
+			if (group == null) {
+				group = new HashSet<T>();
+				clusters.put(root, group);
+			}
+			group.add(items.get(i));
+		}
+
+		return new HashSet<Set<T>>(clusters.values());
+	}
+
+	private void tryUnion(List<T> items, int[] parent, int a, int b) {
+		int ra = find(parent, a);
+		int rb = find(parent, b);
+		if (ra == rb)
+			return; // already in the same cluster
+		T x = items.get(a);
+		T y = items.get(b);
+		if (match(x, y) || match(y, x))
+			parent[Math.max(ra, rb)] = Math.min(ra, rb);
 	}
-	
-	
-	private boolean matchAny(T u, Set<T> clu) {
-		for(T t : clu) {
-			if(match(u, t) || match(t, u))
-				return true;
+
+	private static int find(int[] parent, int i) {
+		int root = i;
+		while (parent[root] != root)
+			root = parent[root];
+		// path compression
+		while (parent[i] != root) {
+			int next = parent[i];
+			parent[i] = root;
+			i = next;
 		}
-		return false;
+		return root;
 	}
-	
+
 }
@@ -11,7 +11,11 @@ import org.springframework.beans.factory.annotation.Configurable;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
 
 /**
  * Validation rules and errors utilities.
@@ -30,6 +34,8 @@ public class CoreUtils implements ValidatorUtils {
   private Locale locale;
   private MessageSource messageSource;
   private int maxErrors;
+  // rule -> (profile -> behavior); the default profile's key is ""
+  private Map<String, Map<String, Behavior>> behaviors;
 
   public CoreUtils() {
     this.maxErrors = DEFAULT_MAX_ERRORS;
@@ -50,6 +56,32 @@ public class CoreUtils implements ValidatorUtils {
     return locale;
   }
 
+  /**
+   * Sets the validation profiles (rules behavior) configuration,
+   * e.g., loaded from the profiles.properties, where a key is like
+   * &lt;rule class name&gt;.behavior[.&lt;profile&gt;] and a value is one of {@link Behavior}.
+   * This builds the immutable rule-profile-behavior table
+   * (then the message source is not used to resolve a rule's behavior).
+   *
+   * @param profiles rules behavior settings
+   */
+  public void setBehaviors(Properties profiles) {
+    Map<String, Map<String, Behavior>> table = new HashMap<>();
+    for (String key : profiles.stringPropertyNames()) {
+      int i = key.lastIndexOf(".behavior");
+      if (i <= 0)
+        continue;
+      String rest = key.substring(i + 9);
+      if (!rest.isEmpty() && !rest.startsWith("."))
+        continue; //not a behavior key
+      String profile = (rest.isEmpty()) ? "" : rest.substring(1);
+      Behavior behavior = Behavior.valueOf(profiles.getProperty(key).trim().toUpperCase());
+      table.computeIfAbsent(key.substring(0, i), k -> new HashMap<>()).put(profile, behavior);
+    }
+    table.replaceAll((rule, m) -> Collections.unmodifiableMap(m));
+    this.behaviors = Collections.unmodifiableMap(table);
+  }
+
   public int getMaxErrors() {
     return maxErrors;
   }
@@ -99,6 +131,14 @@ public class CoreUtils implements ValidatorUtils {
   }
 
   public Behavior getRuleBehavior(String ruleName, String profile) {
+    if (behaviors != null) {
+      Map<String, Behavior> m = behaviors.get(ruleName);
+      if (m == null) return Behavior.ERROR;
+      Behavior b = (profile != null && !profile.isEmpty()) ? m.get(profile) : null;
+      if (b == null) b = m.get("");
+      return (b != null) ? b : Behavior.ERROR;
+    }
+
     if (messageSource == null) return Behavior.ERROR;
 
     //using the default locale for values below (those ain't info messages)
@@ -0,0 +1,18 @@
+package org.biopax.validator.utils;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by {@link OntologyUtils#reload()} once the new
+ * ontologies and xref.db synonyms have replaced the old ones.
+ *
+ * @author rodche
+ */
+public class OntologiesReloadedEvent extends ApplicationEvent {
+  private static final long serialVersionUID = 1L;
+
+  public OntologiesReloadedEvent(OntologyUtils source) {
+    super(source);
+  }
+
+}
@@ -7,7 +7,6 @@ import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.collections15.collection.CompositeCollection;
-import org.apache.commons.text.StringEscapeUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.biopax.paxtools.model.BioPAXFactory;
@@ -28,6 +27,9 @@ import org.biopax.validator.api.CvRule;
 import org.biopax.validator.api.CvUtils;
 import org.biopax.validator.api.CvRestriction.UseChildTerms;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+
 import javax.annotation.PostConstruct;
 
 
@@ -36,17 +38,62 @@ import javax.annotation.PostConstruct;
  * 
  * @author rodche
  */
-public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
+public class OntologyUtils implements CvUtils, CvFactory, XrefUtils, ApplicationEventPublisherAware
 {
 	private final static Log log = LogFactory.getLog(OntologyUtils.class);
 
-	//see the post-construct init() method, where the following fields get initialized
-	private OntologyManager ontologyManager;
-  private CompositeCollection<String> allSynonyms; //set in init()!
-  private Set<String> unofficialDbNames; // to be generated
-	private Map<String, Pattern> dataPatterns;
+	//see the post-construct init() and reload() methods, where the store gets (re-)built
+	private volatile Store store;
+	// the store to use in the current thread instead (see pin method)
+	private final ThreadLocal<Store> pinned = new ThreadLocal<>();
   private CompositeCollection<String> extraGroups; //set in Constructor
   private Properties ontologyConfig;
+  private boolean lazyOntologies;
+  private Set<String> warmupOntologies;
+  private boolean compactOntologies;
+  private ApplicationEventPublisher eventPublisher;
+
+  /**
+   * The ontologies and all the data derived from them;
+   * replaced as a whole (copy-on-write) when the ontologies are reloaded.
+   *
+   * @see #getStore()
+   * @see #pin(Store)
+   */
+  public static final class Store {
+    final OntologyManager ontologyManager;
+    final CompositeCollection<String> allSynonyms = new CompositeCollection<>();
+    final Set<String> unofficialDbNames = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    final Map<String, Pattern> dataPatterns = new ConcurrentHashMap<>();
+    // resolved CvRestriction terms (the ontologies don't change once loaded)
+    final Map<CvRestriction, Set<OntologyTermI>> termsCache = new ConcurrentHashMap<>();
+    final Map<Set<CvRestriction>, Set<OntologyTermI>> validTermsCache = new ConcurrentHashMap<>();
+    final Map<Set<CvRestriction>, Set<String>> validTermNamesCache = new ConcurrentHashMap<>();
+    // any db name/synonym (normalized) to its synonyms group (primary name goes first), and id pattern
+    final Map<String, List<String>> synonymsByName = new HashMap<>();
+    final Map<String, Pattern> patternsByName = new HashMap<>();
+
+    private Store(OntologyManager ontologyManager) {
+      this.ontologyManager = ontologyManager;
+    }
+
+    /*
+     * Indexes the synonym groups by name (once the groups are built);
+     * when groups overlap (see xcheck), the first one wins, as before.
+     */
+    void index() {
+      for (Collection<String> group : allSynonyms.getCollections()) {
+        if (group.isEmpty())
+          continue;
+        List<String> names = Collections.unmodifiableList(new ArrayList<>(group));
+        Pattern pattern = dataPatterns.get(names.get(0));
+        for (String name : names) {
+          if (synonymsByName.putIfAbsent(name, names) == null && pattern != null)
+            patternsByName.put(name, pattern);
+        }
+      }
+    }
+  }
 
   public void setExtraGroups(Set<List<String>> extraDbSynonyms){
     // normalize and organize provided synonyms
@@ -65,12 +112,89 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
     this.ontologyConfig = ontologyConfig;
   }
 
+  /**
+   * Whether to load the ontologies on first access
+   * (except for {@link #setWarmupOntologies(Set)}) rather than all at once in {@link #init()}.
+   *
+   * @param lazyOntologies true - to load on demand
+   */
+  public void setLazyOntologies(boolean lazyOntologies) {
+    this.lazyOntologies = lazyOntologies;
+  }
+
+  /**
+   * IDs of the ontologies to load in {@link #init()} anyway
+   * (has effect only when lazy loading is enabled).
+   *
+   * @param warmupOntologies ontology IDs
+   */
+  public void setWarmupOntologies(Set<String> warmupOntologies) {
+    this.warmupOntologies = warmupOntologies;
+  }
+
+  /**
+   * Whether to store the ontologies in the compact form
+   * (int arrays instead of hash maps - uses less memory).
+   *
+   * @param compactOntologies true - to use the compact storage
+   */
+  public void setCompactOntologies(boolean compactOntologies) {
+    this.compactOntologies = compactOntologies;
+  }
+
+  public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Gets the ontologies and the data derived from them, which this thread currently uses:
+   * the pinned ones (see {@link #pin(Store)}), if any, or the latest loaded.
+   *
+   * @return ontologies store
+   */
+  public Store getStore() {
+    final Store s = pinned.get();
+    return (s != null) ? s : store;
+  }
+
+  /**
+   * Makes the current thread use the given ontologies store
+   * (e.g., the one captured when a validation started) instead of the latest one,
+   * so that {@link #reload()} does not affect a running validation.
+   *
+   * @param store ontologies to use, or null - to use the latest loaded ones again
+   * @return previously pinned store or null (to restore once done)
+   */
+  public Store pin(Store store) {
+    final Store previous = pinned.get();
+    if (store != null)
+      pinned.set(store);
+    else
+      pinned.remove();
+    return previous;
+  }
+
   public OntologyManager getOntologyManager() {
-    return ontologyManager;
+    return getStore().ontologyManager;
   }
 
+	/**
+	 * Gets the valid terms names and synonyms, lower case (cached).
+	 *
+	 * @param cvRule CV rule
+	 * @return unmodifiable set of names
+	 */
 	public Set<String> getValidTermNames(CvRule<?> cvRule) {
-		return getValidTermNamesLowerCase(cvRule.getRestrictions());
+		final Store s = getStore();
+		Set<CvRestriction> key = new HashSet<>(cvRule.getRestrictions());
+		Set<String> names = s.validTermNamesCache.get(key);
+		if(names == null) {
+			names = Collections.unmodifiableSet(lowerCaseNames(getValidTerms(s, key)));
+			Set<String> prev = s.validTermNamesCache.putIfAbsent(key, names);
+			if(prev != null)
+				names = prev;
+		}
+		return names;
 	}
 	
 	public Set<OntologyTermI> getValidTerms(CvRule<?> cvRule) {
@@ -82,9 +206,16 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
 	}
 
 	public Set<String> getValidTermNamesLowerCase(Collection<CvRestriction> restrictions) {
+		return lowerCaseNames(getValidTerms(restrictions));
+	}
+
+	private static Set<String> lowerCaseNames(Collection<OntologyTermI> terms) {
 		Set<String> names = new HashSet<>();
-		for(String name : getValidTermNames(restrictions)) {
-			names.add(name.toLowerCase());
+		for(OntologyTermI term : terms) {
+			if(term.getPreferredName() != null)
+				names.add(term.getPreferredName().toLowerCase());
+			for(String synonym : term.getNameSynonyms())
+				names.add(synonym.toLowerCase());
 		}
 		return names;
 	}
@@ -93,27 +224,72 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
 		return new HashSet<>(OntologyManager.getTermNames(getTerms(restriction)));
 	}
 	
+	/**
+	 * Gets the terms that satisfy all the restrictions
+	 * (cached, like the terms of each restriction).
+	 *
+	 * @param restrictions restrictions (on type, context, ontology terms)
+	 * @return unmodifiable set of ontology terms
+	 */
 	public Set<OntologyTermI> getValidTerms(Collection<CvRestriction> restrictions) {
+		return getValidTerms(getStore(), restrictions);
+	}
+
+	private Set<OntologyTermI> getValidTerms(Store s, Collection<CvRestriction> restrictions) {
+		Set<CvRestriction> key = new HashSet<>(restrictions);
+		Set<OntologyTermI> terms = s.validTermsCache.get(key);
+		if(terms == null) {
+			terms = Collections.unmodifiableSet(resolveValidTerms(s, restrictions));
+			Set<OntologyTermI> prev = s.validTermsCache.putIfAbsent(key, terms);
+			if(prev != null)
+				terms = prev;
+		}
+		return terms;
+	}
+
+	private Set<OntologyTermI> resolveValidTerms(Store s, Collection<CvRestriction> restrictions) {
 		Set<OntologyTermI> terms = new HashSet<>();
 		
 		// first, collect all the valid terms
 		for(CvRestriction restriction : restrictions) {
 			if(!restriction.isNot()) {
-				terms.addAll(getTerms(restriction));
+				terms.addAll(getTerms(s, restriction));
 			}
 		}
 		
 		// now remove all those where restriction 'not' property set to true
 		for(CvRestriction restriction : restrictions) {
 			if(restriction.isNot()) {
-				terms.removeAll(getTerms(restriction));
+				terms.removeAll(getTerms(s, restriction));
 			}
 		}
 		
 		return terms;
 	}
 
+	/**
+	 * Gets the terms that satisfy the restriction
+	 * (resolved once and cached; 'NOT' property is ignored here).
+	 *
+	 * @param restriction restriction (on type, context, ontology terms)
+	 * @return unmodifiable set of ontology terms
+	 */
 	public Set<OntologyTermI> getTerms(CvRestriction restriction) {
+		return getTerms(getStore(), restriction);
+	}
+
+	private Set<OntologyTermI> getTerms(Store s, CvRestriction restriction) {
+		Set<OntologyTermI> terms = s.termsCache.get(restriction);
+		if(terms == null) {
+			terms = Collections.unmodifiableSet(resolveTerms(s.ontologyManager, restriction));
+			Set<OntologyTermI> prev = s.termsCache.putIfAbsent(restriction, terms);
+			if(prev != null)
+				terms = prev;
+		}
+		return terms;
+	}
+
+	private Set<OntologyTermI> resolveTerms(OntologyManager ontologyManager, CvRestriction restriction) {
 		Set<OntologyTermI> terms = new HashSet<>();
 		OntologyAccess ontologyAccess = ontologyManager.getOntology(restriction.getOntologyId());
 		if(ontologyAccess == null) {
@@ -139,16 +315,7 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
 		} else if (restriction.getChildrenAllowed() == UseChildTerms.DIRECT) {
 			terms.addAll(ontologyAccess.getDirectChildren(term));
 		}
-		
-		// FIX xml escape symbols that come from the OntologyManagerImpl (a bug?)
-		for(OntologyTermI t : terms) {
-			t.setPreferredName(StringEscapeUtils.unescapeXml(t.getPreferredName()));
-			Set<String> synonyms = new HashSet<>();
-			for(String s : t.getNameSynonyms()) {
-				synonyms.add(StringEscapeUtils.unescapeXml(s));
-			}
-			t.setNameSynonyms(synonyms);
-		}
+		// (term names were XML-unescaped when the ontology was loaded)
 		
 		return terms;
 	}
@@ -156,9 +323,10 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
   public <T extends ControlledVocabulary> T getControlledVocabulary(
     String db, String id, Class<T> cvClass, String xmlBase)
   {
+    OntologyManager ontologyManager = getOntologyManager();
     OntologyAccess ontologyAccess = ontologyManager.getOntology(db);
     if (ontologyAccess == null) // it may be urn - try again
-      ontologyAccess = getOntologyByUrn(db);
+      ontologyAccess = getOntologyByUrn(ontologyManager, db);
     OntologyTermI term = ontologyManager.findTerm(ontologyAccess, id);
 
     return (term != null) ? getControlledVocabulary(term, cvClass, xmlBase) : null;
@@ -167,7 +335,7 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
   public <T extends ControlledVocabulary> T getControlledVocabulary(
     String urn, Class<T> cvClass, String xmlBase)
   {
-    OntologyTermI term = ontologyManager.getTermByUri(urn);
+    OntologyTermI term = getOntologyManager().getTermByUri(urn);
     T cv = getControlledVocabulary(term, cvClass, xmlBase);
     if (cv != null)
       cv.addComment("auto-generated");
@@ -175,23 +343,23 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
   }
 
   public Set<String> getDirectChildren(String urn) {
-    return ontologyTermsToUris(ontologyManager.getDirectChildren(urn));
+    return ontologyTermsToUris(getOntologyManager().getDirectChildren(urn));
   }
 
   public Set<String> getDirectParents(String urn) {
-    return ontologyTermsToUris(ontologyManager.getDirectParents(urn));
+    return ontologyTermsToUris(getOntologyManager().getDirectParents(urn));
   }
 
   public Set<String> getAllChildren(String urn) {
-    return ontologyTermsToUris(ontologyManager.getAllChildren(urn));
+    return ontologyTermsToUris(getOntologyManager().getAllChildren(urn));
   }
 
   public Set<String> getAllParents(String urn) {
-    return ontologyTermsToUris(ontologyManager.getAllParents(urn));
+    return ontologyTermsToUris(getOntologyManager().getAllParents(urn));
   }
 
   public boolean isChild(String parentUrn, String urn) {
-    return ontologyManager.isChild(parentUrn, urn);
+    return getOntologyManager().isChild(parentUrn, urn);
   }
 
   private <T extends ControlledVocabulary> T getControlledVocabulary(
@@ -207,7 +375,7 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
     cv.addTerm(term.getPreferredName());
 
     String ontId = term.getOntologyId(); // like "GO"
-    String db = ontologyManager.getOntology(ontId).getName(); // names were fixed in the constructor!
+    String db = getOntologyManager().getOntology(ontId).getName(); // names were fixed in the constructor!
     String rdfid = Normalizer.uri(xmlBase, db, term.getTermAccession(), UnificationXref.class);
     UnificationXref uref = factory.create(UnificationXref.class, rdfid);
     uref.setDb(db);
@@ -220,7 +388,7 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
   /*
    * Gets OntologyAccess by (Miriam's) datatype URI
    */
-  private OntologyAccess getOntologyByUrn(String dtUrn) {
+  private OntologyAccess getOntologyByUrn(OntologyManager ontologyManager, String dtUrn) {
     for (String id : ontologyManager.getOntologyIDs()) {
       OntologyAccess ont = ontologyManager.getOntology(id);
       String urn = MiriamLink.getDataTypeURI(id);
@@ -251,32 +419,61 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
 
   /*
    * Post-construct initializer.
-   *
-   * Loads and merges bio database/datasource names and synonyms
-   * from Miriam resource, PSI-MI ontology ("database citation" branch),
-   * and extra (configured by user) names.
    */
   @PostConstruct //vital
   public synchronized void init() {
+    this.store = load();
+  }
+
+  /**
+   * Loads the ontologies again (e.g., new releases of the OBO files
+   * at the configured locations) and re-builds the xref.db synonyms,
+   * then replaces the current ones at once (the current ones are used meanwhile,
+   * and by the validations that started earlier - see {@link #pin(Store)}),
+   * and notifies the CV rules (publishes {@link OntologiesReloadedEvent}).
+   * If it fails, the current ontologies stay.
+   */
+  public synchronized void reload() {
+    log.info("Reloading the ontologies...");
+    Store s = load();
+    this.store = s;
+    log.info("Reloaded the ontologies: " + s.ontologyManager.getOntologyIDs());
+    if (eventPublisher != null)
+      eventPublisher.publishEvent(new OntologiesReloadedEvent(this));
+  }
+
+  /*
+   * Loads the ontologies and merges bio database/datasource names and synonyms
+   * from Miriam resource, PSI-MI ontology ("database citation" branch),
+   * and extra (configured by user) names.
+   */
+  private Store load() {
+    final Store store;
     try {
       //create new ontology manager and load/parse OBO files as specified in the properties.
-      this.ontologyManager = new OntologyManagerImpl(this.ontologyConfig);
-      //Normalize ontology names
-      for (String id : ontologyManager.getOntologyIDs()) {
+      OntologyManagerImpl manager = new OntologyManagerImpl();
+      //Normalize ontology names (set once an ontology is loaded)
+      Map<String, String> names = new HashMap<>();
+      for (String id : ontologyConfig.stringPropertyNames()) {
         String officialName = MiriamLink.getName(id);
-        ontologyManager.getOntology(id).setName(officialName);
+        names.put(id, officialName);
         log.debug(id + " (" + officialName + ")");
       }
+      manager.setNames(names);
+      manager.setLazy(lazyOntologies);
+      manager.setWarmup(warmupOntologies);
+      manager.setCompact(compactOntologies);
+      manager.loadOntologies(ontologyConfig);
+      store = new Store(manager);
     } catch (Throwable e) {
       throw new RuntimeException("Failed to load or parse all required biological ontologies!", e);
     }
 
     // Build collections of the recommended xref.db names and synonyms and corresponding id patterns
-    this.dataPatterns = new ConcurrentHashMap<>();
-    this.allSynonyms = new CompositeCollection<>();
-    this.unofficialDbNames = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    final Map<String, Pattern> dataPatterns = store.dataPatterns;
+    final Set<String> unofficialDbNames = store.unofficialDbNames;
     // need a temporaty, local "all synonyms" collection
-    // (hide the member one)
+    // (the store's one gets the merged groups below)
     CompositeCollection<String> allSynonyms = new CompositeCollection<>();
     // first, we simple prepare lists of db synonyms,
     // from  Miriam, MI, and "extra" set (already done - constructor arg.)
@@ -308,7 +505,7 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
     }
 
     // load all names from MI 'database citation'
-    OntologyAccess mi = ontologyManager.getOntology("MI");
+    OntologyAccess mi = store.ontologyManager.getOntology("MI");
     Collection<OntologyTermI> terms = mi.getAllChildren(new OntologyTermImpl("MI:0444"));
     for (OntologyTermI term : terms) {
       List<String> synonyms = new ArrayList<>();
@@ -332,12 +529,8 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
     }
 
     // find synonyms groups that overlap,
-    Cluster<Collection<String>> clus = new Cluster<Collection<String>>() {
-      @Override
-      public boolean match(Collection<String> a, Collection<String> b) {
-        return !Collections.disjoint(a, b);
-      }
-    };
+    // overlapping groups share a name (used as the blocking key)
+    Cluster<Collection<String>> clus = Cluster.of((a, b) -> !Collections.disjoint(a, b), names -> names);
 
     // find all overlapping groups of names (can be single-group "clusters" as well))
     // get the set of clusters (sets) of overlapping synonym lists! (i.e., we're in fact clustering List<String> objects)
@@ -362,13 +555,16 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
           merged.remove(primary);
           merged.add(0, primary);
         }
-        this.allSynonyms.addComposited(merged);
+        store.allSynonyms.addComposited(merged);
       } else {
         assert !groupsToMerge.isEmpty(); //one!
         //not overlapping (with other) single group
-        this.allSynonyms.addComposited(groupsToMerge.iterator().next());
+        store.allSynonyms.addComposited(groupsToMerge.iterator().next());
       }
     }
+    store.index();
+
+    return store;
   }
 
   @Override
@@ -378,18 +574,8 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
 
   @Override
   public List<String> getSynonymsForDbName(String name) {
-    return getSynonymsForName(name, allSynonyms);
-  }
-
-  private List<String> getSynonymsForName(String name, CompositeCollection<String> groups) {
-    String dbName = dbName(name);
-
-    for (Collection<String> group : groups.getCollections()) {
-      if (group.contains(dbName)) {
-        return (List<String>) group;
-      }
-    }
-    return Collections.emptyList();
+    List<String> group = getStore().synonymsByName.get(dbName(name));
+    return (group != null) ? group : Collections.emptyList();
   }
 
   @Override
@@ -401,31 +587,28 @@ public class OntologyUtils implements CvUtils, CvFactory, XrefUtils
 
   @Override
   public boolean checkIdFormat(String db, String id) {
-    String name = getPrimaryDbName(db);
-    Pattern p = dataPatterns.get(name);
+    Pattern p = getStore().patternsByName.get(dbName(db));
     return p.matcher(id).find();
   }
 
   @Override
   public boolean canCheckIdFormatIn(String name) {
-    String db = getPrimaryDbName(name);
-    return (db!=null) && (dataPatterns.get(db)!=null);
+    return getStore().patternsByName.containsKey(dbName(name));
   }
 
   @Override
   public String getRegexpString(String db) {
-    String name = getPrimaryDbName(db);
-    Pattern p = dataPatterns.get(name);
+    Pattern p = getStore().patternsByName.get(dbName(db));
     return (p != null) ? p.pattern() : null;
   }
 
   @Override
   public boolean isUnofficialOrMisspelledDbName(final String db) {
-    return unofficialDbNames.contains(dbName(db));
+    return getStore().unofficialDbNames.contains(dbName(db));
   }
 
   public boolean xcheck() {
-    Collection[] lists = allSynonyms.getCollections().toArray(new Collection[]{});
+    Collection[] lists = getStore().allSynonyms.getCollections().toArray(new Collection[]{});
     for (int i = 0; i < lists.length; i++) {
       Collection li = lists[i];
       for (int j = i + 1; j < lists.length; j++) {
@@ -56,6 +56,11 @@
 					<xsl:otherwise>errors not fixed: <xsl:value-of select="@notFixedErrors"/></xsl:otherwise>
 				</xsl:choose>
 			</li>
+			<xsl:if test="unfinishedRule">
+				<li>unfinished rules: <xsl:for-each select="unfinishedRule">
+					<xsl:value-of select="."/>&#xa0;
+				</xsl:for-each></li>
+			</xsl:if>
 
 			<xsl:if test="(@fix='true') or (@normalize='true')">
 				<li><a href="#" class="hider" hide-id="{generate-id()}owl">Modified BioPAX</a>&#xa0;
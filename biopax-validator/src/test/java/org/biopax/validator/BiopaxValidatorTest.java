@@ -0,0 +1,358 @@
+package org.biopax.validator;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.biopax.paxtools.model.BioPAXLevel;
+import org.biopax.paxtools.model.Model;
+import org.biopax.paxtools.model.level3.Protein;
+import org.biopax.paxtools.model.level3.UnificationXref;
+import org.biopax.paxtools.model.level3.Xref;
+import org.biopax.psidev.ontology_manager.OntologyManager;
+import org.biopax.validator.api.CvRestriction;
+import org.biopax.validator.api.CvRestriction.UseChildTerms;
+import org.biopax.validator.api.Rule;
+import org.biopax.validator.api.ValidatorException;
+import org.biopax.validator.api.beans.ErrorCaseType;
+import org.biopax.validator.api.beans.ErrorType;
+import org.biopax.validator.api.beans.Validation;
+import org.biopax.validator.utils.CoreUtils;
+import org.biopax.validator.utils.OntologyUtils;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+/**
+ * Tests how {@link BiopaxValidator} runs the rules
+ * (w/o Spring context and real rules).
+ *
+ * @author rodche
+ */
+public class BiopaxValidatorTest {
+
+  private final List<ValidatorExecutor> executors = new ArrayList<>();
+
+  // reports every xref
+  public static class XrefTestRule extends AbstractRule<Xref> {
+    public boolean canCheck(Object thing) {
+      return thing instanceof Xref;
+    }
+
+    public void check(Validation validation, Xref thing) {
+      error(validation, thing, "test.xref", false, thing.getId());
+    }
+  }
+
+  // reports proteins without xrefs
+  public static class ProteinTestRule extends AbstractRule<Protein> {
+    public boolean canCheck(Object thing) {
+      return thing instanceof Protein;
+    }
+
+    public void check(Validation validation, Protein thing) {
+      if (thing.getXref().isEmpty())
+        error(validation, thing, "test.protein", false);
+    }
+  }
+
+  // reports the model once
+  public static class ModelTestRule extends AbstractRule<Model> {
+    public boolean canCheck(Object thing) {
+      return thing instanceof Model;
+    }
+
+    public void check(Validation validation, Model thing) {
+      error(validation, thing, "test.model", false, thing.getObjects().size());
+    }
+  }
+
+  // takes 1 s to check an xref (stops if interrupted), i.e., a complete run outlasts the test timeout;
+  // 'started' is released when it begins checking the first one
+  public static class SlowTestRule extends AbstractRule<Xref> {
+    final CountDownLatch started = new CountDownLatch(1);
+
+    public boolean canCheck(Object thing) {
+      return thing instanceof Xref;
+    }
+
+    public void check(Validation validation, Xref thing) {
+      started.countDown();
+      try {
+        Thread.sleep(1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  // reloads the ontologies when it checks the first xref; remembers the ontologies used
+  public static class ReloadingCvTestRule extends AbstractCvRule<Xref> {
+    final AtomicBoolean reloaded = new AtomicBoolean();
+    final Set<OntologyManager> managers = Collections.synchronizedSet(
+      Collections.newSetFromMap(new IdentityHashMap<OntologyManager, Boolean>()));
+    final Set<Set<String>> validTerms = Collections.synchronizedSet(
+      Collections.newSetFromMap(new IdentityHashMap<Set<String>, Boolean>()));
+
+    public ReloadingCvTestRule(OntologyUtils ontologyUtils) {
+      super(Xref.class, null, new CvRestriction("GO:0005654", "GO", true, UseChildTerms.ALL, false));
+      this.ontologyUtils = ontologyUtils;
+      init();
+    }
+
+    public void check(Validation validation, Xref thing) {
+      if (reloaded.compareAndSet(false, true))
+        ((OntologyUtils) ontologyUtils).reload();
+      managers.add(ontologyUtils.getOntologyManager());
+      validTerms.add(getValidTerms());
+    }
+  }
+
+  @After
+  public void shutdown() {
+    for (ValidatorExecutor executor : executors)
+      executor.shutdown();
+  }
+
+  private BiopaxValidator validator(int chunkSize, int threads, Rule<?>... rules) {
+    ValidatorExecutor executor = new ValidatorExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.initialize();
+    executors.add(executor);
+
+    BiopaxValidator validator = new BiopaxValidator();
+    validator.setUtils(new CoreUtils());
+    validator.setRules(new HashSet<Rule<?>>(Arrays.asList(rules)));
+    validator.setChunkSize(chunkSize);
+    validator.setExecutor(executor);
+    return validator;
+  }
+
+  static Model model(int size) {
+    Model model = BioPAXLevel.L3.getDefaultFactory().createModel();
+    for (int i = 0; i < size; i++) {
+      Protein p = model.addNew(Protein.class, "http://biopax.org/test#Protein" + i);
+      if (i % 2 == 0) {
+        UnificationXref x = model.addNew(UnificationXref.class, "http://biopax.org/test#Xref" + i);
+        x.setDb("uniprot");
+        x.setId("P" + i);
+        p.addXref(x);
+      }
+    }
+    return model;
+  }
+
+  // all the reported cases (error code, object, rule, fixed)
+  static Set<String> cases(Validation v) {
+    Set<String> cases = new TreeSet<>();
+    for (ErrorType e : v.getError())
+      for (ErrorCaseType c : e.getErrorCase())
+        cases.add(e.getCode() + " " + c.getObject() + " " + c.getReportedBy() + " " + c.isFixed());
+    return cases;
+  }
+
+  @Test
+  public void chunkedMatchesSequential() {
+    Model model = model(100); //150 objects
+    Validation parallel = new Validation(new BiopaxIdentifier());
+    parallel.setModel(model);
+    validator(7, 4, new XrefTestRule(), new ProteinTestRule(), new ModelTestRule())
+      .validate(parallel);
+
+    Validation sequential = new Validation(new BiopaxIdentifier());
+    sequential.setModel(model);
+    validator(1000, 1, new XrefTestRule(), new ProteinTestRule(), new ModelTestRule())
+      .validate(sequential);
+
+    assertFalse(parallel.isIncomplete());
+    assertEquals(50 + 50 + 1, parallel.getTotalProblemsFound());
+    assertEquals(cases(sequential), cases(parallel));
+    assertEquals(sequential.getNotFixedErrors(), parallel.getNotFixedErrors());
+  }
+
+  @Test
+  public void rulesByType() {
+    XrefTestRule xrefRule = new XrefTestRule();
+    ProteinTestRule proteinRule = new ProteinTestRule();
+    BiopaxValidator validator = validator(10, 1, xrefRule, proteinRule, new ModelTestRule());
+
+    List<Rule<?>> rules = validator.getRules(UnificationXref.class, null);
+    assertEquals(Collections.singletonList(xrefRule), rules);
+    assertSame(rules, validator.getRules(UnificationXref.class, null)); //cached
+    assertEquals(Collections.singletonList(proteinRule), validator.getRules(Protein.class, ""));
+
+    // disabled in a profile
+    Properties profiles = new Properties();
+    profiles.setProperty(XrefTestRule.class.getName() + ".behavior.notstrict", "ignore");
+    CoreUtils utils = new CoreUtils();
+    utils.setBehaviors(profiles);
+    validator.setUtils(utils);
+    assertTrue(validator.getRules(UnificationXref.class, "notstrict").isEmpty());
+    assertEquals(Collections.singletonList(xrefRule), validator.getRules(UnificationXref.class, null));
+  }
+
+  @Test
+  public void virtualMatchesPooled() {
+    Model model = model(100);
+    Validation pooled = new Validation(new BiopaxIdentifier());
+    pooled.setModel(model);
+    validator(7, 4, new XrefTestRule(), new ProteinTestRule(), new ModelTestRule())
+      .validate(pooled);
+
+    // uses virtual threads if available (Java 21+), or falls back to the shared pool
+    BiopaxValidator validator = validator(7, 4, new XrefTestRule(), new ProteinTestRule(), new ModelTestRule());
+    validator.setMode(BiopaxValidator.Mode.VIRTUAL);
+    Validation virtual = new Validation(new BiopaxIdentifier());
+    virtual.setModel(model);
+    validator.validate(virtual);
+
+    assertFalse(virtual.isIncomplete());
+    assertEquals(cases(pooled), cases(virtual));
+    assertEquals(pooled.getNotFixedErrors(), virtual.getNotFixedErrors());
+    // the shared pool is not shut down when the (fallback) scope is closed
+    assertFalse(validator.getExecutor().getThreadPoolExecutor().isShutdown());
+  }
+
+  @Test(timeout = 10000)
+  public void timeout() {
+    Model model = model(100); //50 xrefs, i.e., 25 s to check them in two threads
+    model.addNew(UnificationXref.class, "http://biopax.org/test#DanglingXref");
+    Validation v = new Validation(new BiopaxIdentifier(), "timeout", true, null, 0, null);
+    v.setModel(model);
+    validator(5, 2, new SlowTestRule(), new ProteinTestRule(), new ModelTestRule())
+      .validate(v, 300, TimeUnit.MILLISECONDS);
+
+    assertTrue(v.isIncomplete());
+    assertTrue(v.getSummary().contains("time is out"));
+    assertTrue(v.getUnfinishedRules().contains(SlowTestRule.class.getName()));
+    assertTrue(v.getUnfinishedRules().contains(ModelTestRule.class.getName())); //not started
+    assertEquals(0, v.countErrors(null, null, "test.model", null, false, false));
+    // the model is not repaired (dangling xref is not removed) after the validation was aborted
+    assertTrue(model.containsID("http://biopax.org/test#DanglingXref"));
+
+    // same, w/o the time limit
+    v = new Validation(new BiopaxIdentifier(), "no timeout", true, null, 0, null);
+    v.setModel(model);
+    validator(5, 2, new ProteinTestRule(), new ModelTestRule()).validate(v, 0, TimeUnit.MILLISECONDS);
+    assertFalse(v.isIncomplete());
+    assertTrue(v.getUnfinishedRules().isEmpty());
+    assertEquals(1, v.countErrors(null, null, "test.model", null, false, false));
+    assertFalse(model.containsID("http://biopax.org/test#DanglingXref"));
+  }
+
+  @Test(timeout = 10000)
+  public void cancel() throws InterruptedException {
+    final Validation v = new Validation(new BiopaxIdentifier());
+    v.setModel(model(100));
+    final SlowTestRule slowRule = new SlowTestRule();
+    final BiopaxValidator validator = validator(5, 2, slowRule, new ModelTestRule());
+    Thread thread = new Thread(() -> validator.validate(v));
+    thread.start();
+    slowRule.started.await();
+    v.cancel();
+    thread.join(); //the test timeout is the upper bound
+
+    assertTrue(v.isIncomplete());
+    assertTrue(v.getSummary().contains("cancelled"));
+    assertTrue(v.getUnfinishedRules().contains(SlowTestRule.class.getName()));
+    assertTrue(v.getUnfinishedRules().contains(ModelTestRule.class.getName()));
+  }
+
+  @Test
+  public void metrics() {
+    RuleMetrics metrics = new RuleMetrics();
+    BiopaxValidator validator = validator(7, 4, new XrefTestRule(), new ProteinTestRule(), new ModelTestRule());
+    validator.setMetrics(metrics);
+    Model model = model(100);
+
+    // disabled by default
+    Validation v = new Validation(new BiopaxIdentifier());
+    v.setModel(model);
+    validator.validate(v);
+    assertTrue(metrics.getStats(XrefTestRule.class.getName()).isEmpty());
+
+    metrics.setEnabled(true);
+    v = new Validation(new BiopaxIdentifier());
+    v.setModel(model);
+    validator.validate(v);
+
+    RuleMetrics.Stats s = metrics.getStats(XrefTestRule.class.getName()).get(UnificationXref.class);
+    assertEquals(50, s.getCount());
+    assertEquals(50, s.getErrors());
+    assertTrue(s.getMaxNanos() <= s.getTotalNanos());
+    s = metrics.getStats(ProteinTestRule.class.getName()).get(Protein.class);
+    assertEquals(100, s.getCount());
+    assertEquals(50, s.getErrors()); //only proteins w/o xrefs
+    s = metrics.getStats(ModelTestRule.class.getName()).get(model.getClass());
+    assertEquals(1, s.getCount());
+    assertEquals(1, s.getErrors());
+    assertEquals(3, metrics.getReport().length);
+
+    metrics.reset();
+    assertTrue(metrics.getStats(XrefTestRule.class.getName()).isEmpty());
+  }
+
+  @Test
+  public void metricsErrorCounterReset() {
+    RuleMetrics metrics = new RuleMetrics();
+    Rule<?> rule = new XrefTestRule();
+    metrics.begin();
+    RuleMetrics.errorReported();
+    RuleMetrics.errorReported();
+    metrics.end(rule, Xref.class, 10);
+    RuleMetrics.errorReported(); //not during a check - not counted
+    metrics.begin();
+    metrics.end(rule, Xref.class, 5);
+
+    RuleMetrics.Stats s = metrics.getStats(XrefTestRule.class.getName()).get(Xref.class);
+    assertEquals(2, s.getCount());
+    assertEquals(2, s.getErrors());
+    assertEquals(15, s.getTotalNanos());
+    assertEquals(10, s.getMaxNanos());
+  }
+
+  @Test
+  public void ontologiesReloadedDuringValidation() throws IOException {
+    OntologyUtils ontologyUtils = new OntologyUtils();
+    ontologyUtils.setOntologyConfig(PropertiesLoaderUtils.loadProperties(new ClassPathResource("test-obo.properties")));
+    ontologyUtils.init();
+    OntologyManager before = ontologyUtils.getOntologyManager();
+    ReloadingCvTestRule rule = new ReloadingCvTestRule(ontologyUtils);
+    Set<String> validTerms = rule.getValidTerms();
+    assertFalse(validTerms.isEmpty());
+
+    BiopaxValidator validator = validator(5, 4, rule);
+    validator.setOntologyUtils(ontologyUtils);
+    Validation v = new Validation(new BiopaxIdentifier());
+    v.setModel(model(100));
+    validator.validate(v);
+
+    assertTrue(rule.reloaded.get());
+    assertNotSame(before, ontologyUtils.getOntologyManager());
+    // all the checks used the ontologies loaded before the validation started
+    assertEquals(1, rule.managers.size());
+    assertSame(before, rule.managers.iterator().next());
+    assertEquals(1, rule.validTerms.size());
+    assertSame(validTerms, rule.validTerms.iterator().next());
+    // and the next validations - the new ones
+    Set<String> reloaded = rule.getValidTerms();
+    assertNotSame(validTerms, reloaded);
+    assertEquals(validTerms, reloaded);
+  }
+
+  @Test(timeout = 10000, expected = ValidatorException.class)
+  public void executorShutdown() {
+    BiopaxValidator validator = validator(1, 1, new XrefTestRule());
+    validator.getExecutor().shutdown();
+    Validation v = new Validation(new BiopaxIdentifier());
+    v.setModel(model(10));
+    validator.validate(v); //must not hang
+  }
+
+}
@@ -4,6 +4,11 @@ import static org.junit.Assert.*;
 
 import java.io.*;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.biopax.paxtools.io.*;
 import org.biopax.paxtools.model.*;
@@ -11,6 +16,7 @@ import org.biopax.paxtools.model.level3.*;
 import org.biopax.validator.BiopaxIdentifier;
 import org.biopax.validator.api.Rule;
 import org.biopax.validator.api.beans.Validation;
+import org.biopax.validator.utils.Cluster;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
@@ -450,6 +456,80 @@ public class RulesTest {
     assertEquals(0, v.countErrors(null, null, "cloned.utility.class", null, false, true));
     // write the example
     writeExample("testClonedUtilityClassRuleFixed.owl", model);
+
+    // equivalent CVs (same unification xref) must have a common blocking key
+    CellularLocationVocabulary cv1 = level3.create(CellularLocationVocabulary.class, "cv1");
+    cv1.addTerm("cytoplasm");
+    cv1.addXref(uniprotX);
+    CellularLocationVocabulary cv2 = level3.create(CellularLocationVocabulary.class, "cv2");
+    cv2.addTerm("Cytosol");
+    cv2.addXref(uniprotX);
+    assertFalse(java.util.Collections.disjoint(
+      ClonedUtilityClassRule.equivalenceKeys(cv1), ClonedUtilityClassRule.equivalenceKeys(cv2)));
+  }
+
+  @Test
+  public final void testClonedUtilityClassRuleKeys() {
+    // biosources of different taxonomy are not compared pairwise
+    List<UtilityClass> bioSources = new ArrayList<UtilityClass>();
+    for (int i = 0; i < 100; i++)
+      bioSources.add(bioSource("bs" + i, String.valueOf(9000 + i)));
+    BioSource clone = bioSource("bs0clone", "9000");
+    bioSources.add(clone);
+
+    final AtomicInteger comparisons = new AtomicInteger();
+    Cluster<UtilityClass> cluster = Cluster.of((a, b) -> {
+      comparisons.incrementAndGet();
+      return !a.equals(b) && a.isEquivalent(b);
+    }, ClonedUtilityClassRule::equivalenceKeys);
+    cluster.cluster(bioSources, Integer.MAX_VALUE);
+    assertEquals(1, comparisons.get()); //only bs0 and its clone
+    assertFalse(Collections.disjoint(ClonedUtilityClassRule.equivalenceKeys(bioSources.get(0)),
+      ClonedUtilityClassRule.equivalenceKeys(clone)));
+
+    // sequence sites - by position and status
+    SequenceSite s1 = level3.create(SequenceSite.class, "s1");
+    s1.setSequencePosition(10);
+    s1.setPositionStatus(PositionStatusType.EQUAL);
+    SequenceSite s2 = level3.create(SequenceSite.class, "s2");
+    s2.setSequencePosition(10);
+    s2.setPositionStatus(PositionStatusType.EQUAL);
+    SequenceSite s3 = level3.create(SequenceSite.class, "s3");
+    s3.setSequencePosition(11);
+    s3.setPositionStatus(PositionStatusType.EQUAL);
+    assertEquals(ClonedUtilityClassRule.equivalenceKeys(s1), ClonedUtilityClassRule.equivalenceKeys(s2));
+    assertTrue(Collections.disjoint(ClonedUtilityClassRule.equivalenceKeys(s1),
+      ClonedUtilityClassRule.equivalenceKeys(s3)));
+
+    // stoichiometry - by coefficient and physical entity (reference)
+    ProteinReference pr = level3.create(ProteinReference.class, "pr");
+    pr.addXref(((BioSource) bioSources.get(1)).getXref().iterator().next());
+    Protein p1 = level3.create(Protein.class, "p1");
+    p1.setEntityReference(pr);
+    Protein p2 = level3.create(Protein.class, "p2");
+    p2.setEntityReference(pr);
+    Stoichiometry st1 = level3.create(Stoichiometry.class, "st1");
+    st1.setStoichiometricCoefficient(2f);
+    st1.setPhysicalEntity(p1);
+    Stoichiometry st2 = level3.create(Stoichiometry.class, "st2");
+    st2.setStoichiometricCoefficient(2f);
+    st2.setPhysicalEntity(p2);
+    Stoichiometry st3 = level3.create(Stoichiometry.class, "st3");
+    st3.setStoichiometricCoefficient(1f);
+    st3.setPhysicalEntity(p1);
+    assertFalse(Collections.disjoint(ClonedUtilityClassRule.equivalenceKeys(st1),
+      ClonedUtilityClassRule.equivalenceKeys(st2)));
+    assertTrue(Collections.disjoint(ClonedUtilityClassRule.equivalenceKeys(st1),
+      ClonedUtilityClassRule.equivalenceKeys(st3)));
+  }
+
+  private static BioSource bioSource(String uri, String taxonomyId) {
+    BioSource bs = level3.create(BioSource.class, uri);
+    UnificationXref x = level3.create(UnificationXref.class, uri + "_taxonomy");
+    x.setDb("taxonomy");
+    x.setId(taxonomyId);
+    bs.addXref(x);
+    return bs;
   }
 
 
@@ -462,6 +542,53 @@ public class RulesTest {
     Validation v = new Validation(new BiopaxIdentifier());
     rule.check(v, m);
     assertEquals(1, v.countErrors(null, null, "duplicate.id.ignoringcase", null, false, false));
+
+    // one case per group of URIs that differ only in case
+    m.addNew(Protein.class, "http://biopax.org/test#ABC");
+    m.addNew(Protein.class, "http://biopax.org/test#abc");
+    m.addNew(SmallMolecule.class, "http://biopax.org/test#Abc");
+    m.addNew(Protein.class, "http://biopax.org/test#abcd");
+    m.addNew(Protein.class, "http://biopax.org/test#some_id2");
+    v = new Validation(new BiopaxIdentifier());
+    rule.check(v, m);
+    assertEquals(2, v.countErrors(null, null, "duplicate.id.ignoringcase", null, false, false));
+    assertEquals(0, v.countErrors("http://biopax.org/test#abcd", null, "duplicate.id.ignoringcase", null, false, false));
+    assertEquals(0, v.countErrors("http://biopax.org/test#some_id2", null, "duplicate.id.ignoringcase", null, false, false));
+  }
+
+  @Test
+  public void testSameNameDiffKindPhysEntitiesRule() {
+    Rule<Model> rule = new SameNameDiffKindPhysEntitiesRule();
+    Model m = level3.createModel();
+    ProteinReference pr = m.addNew(ProteinReference.class, "pr");
+    SmallMoleculeReference smr = m.addNew(SmallMoleculeReference.class, "smr");
+    // same name, different kind (entity reference)
+    Protein p1 = m.addNew(Protein.class, "p1");
+    p1.setEntityReference(pr);
+    p1.addName("foo");
+    Protein p2 = m.addNew(Protein.class, "p2");
+    p2.setEntityReference(pr);
+    p2.addName("foo");
+    p2.addName("bar");
+    SmallMolecule sm = m.addNew(SmallMolecule.class, "sm");
+    sm.setEntityReference(smr);
+    sm.addName("foo");
+    // different names
+    SmallMolecule sm2 = m.addNew(SmallMolecule.class, "sm2");
+    sm2.setEntityReference(m.addNew(SmallMoleculeReference.class, "smr2"));
+    sm2.addName("baz");
+
+    Validation v = new Validation(new BiopaxIdentifier());
+    rule.check(v, m);
+    // reported once, for the cluster {p1, p2, sm}
+    assertEquals(1, v.countErrors(null, null, "diff.kind.same.name", null, false, false));
+    assertEquals(0, v.countErrors("sm2", null, "diff.kind.same.name", null, false, false));
+
+    // same name, same kind - ok
+    m.remove(sm);
+    v = new Validation(new BiopaxIdentifier());
+    rule.check(v, m);
+    assertEquals(0, v.countErrors(null, null, "diff.kind.same.name", null, false, false));
   }
 
 
@@ -633,4 +760,13 @@ public class RulesTest {
     assertEquals(0, v.countErrors(ef1.getUri(), null, "inverse.functional.violated", null, false, true));
     writeExample("testEntityFeatureInverseFunctionalRuleFixed.owl", m);
   }
+
+  @Test
+  public void testRuleDomain() {
+    assertEquals(Complex.class, new AcyclicComplexRule().getDomain());
+    assertEquals(Model.class, new DuplicateIdCaseInsensitiveRule().getDomain());
+    assertEquals(UnificationXref.class, new UnificationXrefDbCRRule().getDomain());
+    //resolved through the generic CvTermsRule<T> class
+    assertEquals(CellularLocationVocabulary.class, new CellularLocationCvRule().getDomain());
+  }
 }
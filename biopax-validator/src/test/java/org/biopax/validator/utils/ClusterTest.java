@@ -0,0 +1,47 @@
+package org.biopax.validator.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ClusterTest {
+
+	@Test
+	public final void testCluster() {
+		// strings that share the first letter (the blocking key) and have the same length
+		Cluster<String> c = Cluster.of((a, b) -> a.length() == b.length(),
+			s -> Arrays.asList(s.charAt(0)));
+		Set<Set<String>> clusters = c.cluster(Arrays.asList("ab", "ac", "ad", "b1", "abc", "b2", "ab"), Integer.MAX_VALUE);
+		assertEquals(3, clusters.size());
+		assertTrue(clusters.contains(new HashSet<String>(Arrays.asList("ab", "ac", "ad"))));
+		assertTrue(clusters.contains(new HashSet<String>(Arrays.asList("b1", "b2"))));
+
+		// no blocking
+		c = Cluster.of((a, b) -> a.length() == b.length(), s -> null);
+		clusters = c.cluster(Arrays.asList("ab", "b1", "abc"), Integer.MAX_VALUE);
+		assertEquals(2, clusters.size());
+		assertTrue(clusters.contains(new HashSet<String>(Arrays.asList("ab", "b1"))));
+	}
+
+	@Test
+	public final void testNoKeysBucket() {
+		// objects w/o keys are compared only with one another, not with all the others
+		final AtomicInteger comparisons = new AtomicInteger();
+		Cluster<String> c = Cluster.of((a, b) -> {
+				comparisons.incrementAndGet();
+				return a.length() == b.length();
+			},
+			s -> (s.startsWith("x")) ? null : Arrays.asList(s.charAt(0)));
+		Set<Set<String>> clusters = c.cluster(Arrays.asList("x1", "x2", "ab", "ac", "bd", "be", "cf"), Integer.MAX_VALUE);
+		assertEquals(4, clusters.size());
+		assertTrue(clusters.contains(new HashSet<String>(Arrays.asList("x1", "x2"))));
+		assertTrue(clusters.contains(new HashSet<String>(Arrays.asList("ab", "ac"))));
+		assertTrue(clusters.contains(new HashSet<String>(Arrays.asList("bd", "be"))));
+		assertEquals(3, comparisons.get()); //x1-x2, ab-ac, bd-be
+	}
+}
@@ -3,6 +3,7 @@ package org.biopax.validator.utils;
 import static org.junit.Assert.*;
 
 import java.io.*;
+import java.util.Properties;
 
 import javax.xml.transform.stream.StreamSource;
 
@@ -125,4 +126,21 @@ public class CoreUtilsTest {
 		
 		assertEquals(xmlresp1, xmlresp2);	
 	}
+
+	@Test
+	public final void testRuleBehaviorTable() {
+		Properties profiles = new Properties();
+		profiles.setProperty("org.example.FooRule.behavior", "warning");
+		profiles.setProperty("org.example.FooRule.behavior.notstrict", "ignore");
+		profiles.setProperty("org.example.BarRule.behavior.notstrict", "warning");
+		CoreUtils utils = new CoreUtils();
+		utils.setBehaviors(profiles);
+
+		assertEquals(Behavior.WARNING, utils.getRuleBehavior("org.example.FooRule", null));
+		assertEquals(Behavior.IGNORE, utils.getRuleBehavior("org.example.FooRule", "notstrict"));
+		assertEquals(Behavior.WARNING, utils.getRuleBehavior("org.example.FooRule", "other"));
+		assertEquals(Behavior.ERROR, utils.getRuleBehavior("org.example.BarRule", ""));
+		assertEquals(Behavior.WARNING, utils.getRuleBehavior("org.example.BarRule", "notstrict"));
+		assertEquals(Behavior.ERROR, utils.getRuleBehavior("org.example.BazRule", "notstrict"));
+	}
 }
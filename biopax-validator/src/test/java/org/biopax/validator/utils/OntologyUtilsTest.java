@@ -3,12 +3,18 @@ package org.biopax.validator.utils;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import org.biopax.paxtools.model.level3.*;
 import org.biopax.validator.CvFactory;
 import org.biopax.validator.XrefUtils;
+import org.biopax.psidev.ontology_manager.OntologyManager;
+import org.biopax.psidev.ontology_manager.OntologyTermI;
+import org.biopax.validator.api.CvRestriction;
+import org.biopax.validator.api.CvRestriction.UseChildTerms;
 import org.biopax.validator.api.CvUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -49,6 +55,52 @@ public class OntologyUtilsTest {
     assertTrue(ontologyIDs.contains("MOD"));
   }
 
+  @Test
+  public void getTermsCached() {
+    CvRestriction r = new CvRestriction("GO:0005654", "GO", true, UseChildTerms.ALL, false);
+    Set<OntologyTermI> terms = cvUtils.getTerms(r);
+    assertTrue(terms.size() > 1);
+    //same restriction - same (cached) set
+    assertSame(terms, cvUtils.getTerms(new CvRestriction("GO:0005654", "GO", true, UseChildTerms.ALL, false)));
+    assertNotSame(terms, cvUtils.getTerms(new CvRestriction("GO:0005654", "GO", true, UseChildTerms.DIRECT, false)));
+
+    CvRestriction not = new CvRestriction("GO:0044451", "GO", true, UseChildTerms.NONE, true);
+    Set<OntologyTermI> valid = cvUtils.getValidTerms(Arrays.asList(r, not));
+    assertEquals(terms.size() - 1, valid.size());
+    assertSame(valid, cvUtils.getValidTerms(Arrays.asList(not, r)));
+  }
+
+  @Test
+  public void dbSynonyms() {
+    List<String> go = xrefUtils.getSynonymsForDbName(" go ");
+    assertFalse(go.isEmpty());
+    assertSame(go, xrefUtils.getSynonymsForDbName("Gene Ontology"));
+    assertEquals(go.get(0), xrefUtils.getPrimaryDbName("gene ontology"));
+    assertTrue(xrefUtils.canCheckIdFormatIn("gene ontology"));
+    assertTrue(xrefUtils.checkIdFormat("go", "GO:0005654"));
+    assertFalse(xrefUtils.checkIdFormat("go", "foo"));
+    assertTrue(xrefUtils.getSynonymsForDbName("foo-bar-db").isEmpty());
+    assertNull(xrefUtils.getRegexpString("foo-bar-db"));
+  }
+
+  @Test
+  public void reload() {
+    OntologyUtils utils = (OntologyUtils) cvUtils;
+    OntologyManager before = utils.getOntologyManager();
+    CvRestriction r = new CvRestriction("GO:0005654", "GO", true, UseChildTerms.ALL, false);
+    Set<OntologyTermI> terms = utils.getTerms(r);
+    String primaryDbName = utils.getPrimaryDbName("psi-mi");
+    assertNotNull(primaryDbName);
+    utils.reload();
+    assertNotSame(before, utils.getOntologyManager());
+    assertEquals(before.getOntologyIDs(), utils.getOntologyManager().getOntologyIDs());
+    Set<OntologyTermI> reloaded = utils.getTerms(r);
+    assertNotSame(terms, reloaded);
+    assertEquals(terms.size(), reloaded.size());
+    assertTrue(utils.xcheck());
+    assertEquals(primaryDbName, utils.getPrimaryDbName("psi-mi"));
+  }
+
   @Test
   public void testGetDirectChildren() {
     Set<String> dc = cvFactory.getDirectChildren("urn:miriam:obo.go:GO%3A0005654");
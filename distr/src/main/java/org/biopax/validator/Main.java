@@ -21,6 +21,7 @@ import java.io.*;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * PC BioPAX Validator (console), which
@@ -40,6 +41,8 @@ public class Main {
   static String xmlBase = null;
   static String outFormat = "html";
   static String output = null;
+  static BiopaxValidator.Mode mode = null;
+  static int timeout = 0; //seconds
 
   public static void main(String[] args) throws Exception {
 
@@ -72,6 +75,10 @@ public class Main {
         outFormat = args[i].substring(13);
         if (outFormat.isEmpty())
           outFormat = "html";
+      } else if (args[i].startsWith("--mode=")) {
+        mode = BiopaxValidator.Mode.valueOf(args[i].substring(7).toUpperCase());
+      } else if (args[i].startsWith("--timeout=")) {
+        timeout = Integer.parseInt(args[i].substring(10));
       }
     }
 
@@ -83,6 +90,8 @@ public class Main {
 
     // get the beans to work with
     Validator validator = (Validator) ctx.getBean("biopaxValidator");
+    if (mode != null)
+      ((BiopaxValidator) validator).setMode(mode);
 
     // go validate all
     runBatch(validator, getResourcesToValidate(input));
@@ -93,10 +102,13 @@ public class Main {
     final String usage =
       "\nThe BioPAX Validator v3\n\n" +
         "Usage (arguments):\n <input> [--output=<filename>] [--out-format=xml|html] [--auto-fix] " +
-        "[--xmlBase=<base>] [--max-errors=<n>] [--profile=notstrict]\n\n" +
+        "[--xmlBase=<base>] [--max-errors=<n>] [--profile=notstrict] [--mode=pooled|virtual] [--timeout=<seconds>]\n\n" +
         "Given --output=<filename>, a one-file validation report will be \n" +
         "generated (HTML or XML) instead of default report file(s) in the \n" +
         "current directory. Optional arguments can go in any order.\n" +
+        "The --mode=virtual option runs the rules on virtual threads (Java 21+).\n" +
+        "Given --timeout=<seconds>, checking of each input stops after that time,\n" +
+        "and the report (marked incomplete) lists the rules that did not finish.\n" +
         "For example:\n" +
         "  path/dir --out-format=xml\n" +
         "  list:batch_file.txt --output=reports.html\n" +
@@ -128,7 +140,7 @@ public class Main {
       log.info("BioPAX DATA IMPORT FROM: " + result.getDescription());
       try {
         validator.importModel(result, resource.getInputStream());
-        validator.validate(result);
+        validator.validate(result, timeout, TimeUnit.SECONDS);
 
         //if autofix is enabled, then do normalize too
         if (autofix) {
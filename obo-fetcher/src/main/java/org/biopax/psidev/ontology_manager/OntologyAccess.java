@@ -55,6 +55,15 @@ public interface OntologyAccess {
     Set<OntologyTermI> getAllParents( OntologyTermI term );
 
     Set<OntologyTermI> getAllChildren( OntologyTermI term );
+
+    /**
+     * Whether the term is a descendant of the other one.
+     *
+     * @param parent a term
+     * @param term another term
+     * @return true if term is a (not necessarily direct) child of the parent term
+     */
+    boolean isChild( OntologyTermI parent, OntologyTermI term );
     
     void addLink( String parentId, String childId );
     
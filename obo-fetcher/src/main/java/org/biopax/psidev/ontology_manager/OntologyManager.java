@@ -24,7 +24,7 @@ public interface OntologyManager {
   /**
    * Search for terms using a preferred name or synonym.
    * The search is case insensitive.
-   * It iterates through all loaded ontologies, so use with caution!
+   * It looks into all the ontologies (in the lazy mode, only the loaded ones).
    *
    * @param name - term name (not ID)
    * @return
@@ -34,8 +34,8 @@ public interface OntologyManager {
   /**
    * Search for terms by name or synonym.
    * The search is case insensitive.
-   * It still iterates over all available ontologies, but
-   * skips ones other than specified in the second parameter.
+   * It looks only into the ontologies specified in the second parameter
+   * (or all, when the set is null or empty).
    *
    * @param name - term name (not ID)
    * @param ontologies to look into
@@ -0,0 +1,320 @@
+package org.biopax.psidev.ontology_manager.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.biopax.psidev.ontology_manager.OntologyAccess;
+import org.biopax.psidev.ontology_manager.OntologyTermI;
+
+import java.util.*;
+
+/**
+ * Memory-efficient ontology storage: once loaded, the terms get dense int IDs
+ * (in accession order), and parent/child links are kept in compressed
+ * sparse row (CSR) int arrays instead of maps of term sets;
+ * term synonyms are interned.
+ *
+ * Terms and links can be added any time, but the compact structure
+ * is (re-)built on the first query after that, so it's best to load
+ * everything first.
+ *
+ * @author rodche (baderlab.org)
+ */
+public class CompactOntologyAccess implements OntologyAccess {
+
+  private static final Log log = LogFactory.getLog(CompactOntologyAccess.class);
+
+  private String name;
+
+  // as added (load order)
+  private final List<OntologyTermI> added = new ArrayList<>(1024);
+  // links (term positions in the 'added' list)
+  private int[] linkParent = new int[1024];
+  private int[] linkChild = new int[1024];
+  private int numLinks = 0;
+  private final BitSet obsolete = new BitSet();
+  // accession to position in the 'added' list (dropped when compacted)
+  private Map<String, Integer> addedIndex = new HashMap<>(1024);
+
+  private volatile Compact compact;
+
+  /**
+   * The compact (read-only) form.
+   */
+  private static final class Compact {
+    final OntologyTermI[] terms; //sorted by accession
+    final String[] accessions; //sorted
+    final int[] parentOffsets; //CSR: term i direct parents are parents[parentOffsets[i]..parentOffsets[i+1])
+    final int[] parents;
+    final int[] childOffsets;
+    final int[] children;
+    final BitSet obsolete;
+    volatile TermClosure closure;
+
+    Compact(OntologyTermI[] terms, String[] accessions, int[] parentOffsets, int[] parents,
+            int[] childOffsets, int[] children, BitSet obsolete) {
+      this.terms = terms;
+      this.accessions = accessions;
+      this.parentOffsets = parentOffsets;
+      this.parents = parents;
+      this.childOffsets = childOffsets;
+      this.children = children;
+      this.obsolete = obsolete;
+    }
+
+    int indexOf(String accession) {
+      int i = Arrays.binarySearch(accessions, accession);
+      return (i >= 0) ? i : -1;
+    }
+
+    Set<OntologyTermI> view(int[] ids, int from, int to) {
+      return new TermClosure.TermSet(terms, this::indexOf, ids, from, to);
+    }
+  }
+
+  public CompactOntologyAccess() {
+    log.info("Creating new CompactOntologyAccess...");
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public synchronized void addTerm(OntologyTermI term) {
+    thaw();
+    // share the same synonym strings
+    List<String> synonyms = new ArrayList<>(term.getNameSynonyms().size());
+    for (String syn : term.getNameSynonyms())
+      synonyms.add(syn.intern());
+    term.setNameSynonyms(synonyms);
+
+    String id = term.getTermAccession();
+    Integer pos = addedIndex.get(id);
+    if (pos != null) {
+      log.error("WARNING: 2 Objects have the same ID (" + id
+        + "), the old one is being replaced. old: "
+        + added.get(pos).getPreferredName() + " new: " + term.getPreferredName());
+      added.set(pos, term);
+    } else {
+      addedIndex.put(id, added.size());
+      added.add(term);
+    }
+  }
+
+  public synchronized void addLink(String parentId, String childId) {
+    thaw();
+    Integer child = addedIndex.get(childId);
+    Integer parent = addedIndex.get(parentId);
+    if (child == null || parent == null)
+      throw new NullPointerException("You must give a non null " +
+        "child/parent for addLink method!");
+
+    if (numLinks == linkParent.length) {
+      linkParent = Arrays.copyOf(linkParent, numLinks * 2);
+      linkChild = Arrays.copyOf(linkChild, numLinks * 2);
+    }
+    linkParent[numLinks] = parent;
+    linkChild[numLinks] = child;
+    numLinks++;
+  }
+
+  public synchronized void addObsoleteTerm(OntologyTermI term) {
+    if (term == null)
+      throw new IllegalArgumentException("You must give a non null term");
+    thaw();
+    Integer pos = addedIndex.get(term.getTermAccession());
+    if (pos != null)
+      obsolete.set(pos);
+  }
+
+  /*
+   * Drops the compact form and restores the accession index (to add more terms/links).
+   */
+  private void thaw() {
+    if (compact != null)
+      compact = null;
+    if (addedIndex == null) {
+      addedIndex = new HashMap<>(added.size() * 2);
+      for (int i = 0; i < added.size(); i++)
+        addedIndex.put(added.get(i).getTermAccession(), i);
+    }
+  }
+
+  private Compact getCompact() {
+    Compact c = compact;
+    if (c == null) {
+      synchronized (this) {
+        c = compact;
+        if (c == null) {
+          c = build();
+          compact = c;
+          addedIndex = null; //not needed anymore
+        }
+      }
+    }
+    return c;
+  }
+
+  private Compact build() {
+    final int n = added.size();
+    // sort by accession
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++)
+      order[i] = i;
+    Arrays.sort(order, Comparator.comparing(i -> added.get(i).getTermAccession()));
+    final int[] rank = new int[n];
+    final OntologyTermI[] terms = new OntologyTermI[n];
+    final String[] accessions = new String[n];
+    final BitSet obs = new BitSet(n);
+    for (int r = 0; r < n; r++) {
+      rank[order[r]] = r;
+      terms[r] = added.get(order[r]);
+      accessions[r] = terms[r].getTermAccession();
+      if (obsolete.get(order[r]))
+        obs.set(r);
+    }
+
+    final int[] from = new int[numLinks];
+    final int[] to = new int[numLinks];
+    for (int k = 0; k < numLinks; k++) {
+      from[k] = rank[linkChild[k]];
+      to[k] = rank[linkParent[k]];
+    }
+    final int[][] up = csr(n, from, to);
+    final int[][] down = csr(n, to, from);
+
+    return new Compact(terms, accessions, up[0], up[1], down[0], down[1], obs);
+  }
+
+  /*
+   * Builds CSR arrays {offsets, targets} (each row sorted, w/o duplicates) from the edges.
+   */
+  private static int[][] csr(int n, int[] src, int[] dst) {
+    final int[] offsets = new int[n + 1];
+    for (int s : src)
+      offsets[s + 1]++;
+    for (int i = 0; i < n; i++)
+      offsets[i + 1] += offsets[i];
+    final int[] targets = new int[src.length];
+    final int[] fill = Arrays.copyOf(offsets, n);
+    for (int k = 0; k < src.length; k++)
+      targets[fill[src[k]]++] = dst[k];
+
+    // sort rows, remove duplicates (compact in place)
+    int w = 0;
+    int start = 0;
+    for (int i = 0; i < n; i++) {
+      final int end = offsets[i + 1];
+      Arrays.sort(targets, start, end);
+      final int rowStart = w;
+      for (int k = start; k < end; k++)
+        if (k == start || targets[k] != targets[k - 1])
+          targets[w++] = targets[k];
+      offsets[i] = rowStart;
+      start = end;
+    }
+    offsets[n] = w;
+    return new int[][]{offsets, Arrays.copyOf(targets, w)};
+  }
+
+  private TermClosure getClosure() {
+    final Compact c = getCompact();
+    TermClosure closure = c.closure;
+    if (closure == null) {
+      synchronized (c) {
+        closure = c.closure;
+        if (closure == null) {
+          final int n = c.terms.length;
+          final int[][] direct = new int[n][];
+          for (int i = 0; i < n; i++)
+            direct[i] = Arrays.copyOfRange(c.parents, c.parentOffsets[i], c.parentOffsets[i + 1]);
+          closure = new TermClosure(c.terms, direct, c::indexOf);
+          c.closure = closure;
+        }
+      }
+    }
+    return closure;
+  }
+
+  public Set<OntologyTermI> getValidTerms(String accession, boolean allowChildren, boolean useTerm) {
+    Set<OntologyTermI> collectedTerms = new HashSet<>();
+    final OntologyTermI term = getTermForAccession(accession);
+    if (term != null) {
+      if (useTerm)
+        collectedTerms.add(term);
+      if (allowChildren)
+        collectedTerms.addAll(getAllChildren(term));
+    }
+    return collectedTerms;
+  }
+
+  public OntologyTermI getTermForAccession(String accession) {
+    return search(accession);
+  }
+
+  public boolean hasTerms() {
+    return !added.isEmpty();
+  }
+
+  public OntologyTermI search(String id) {
+    final Compact c = getCompact();
+    final int i = c.indexOf(id);
+    return (i >= 0) ? c.terms[i] : null;
+  }
+
+  public Collection<OntologyTermI> getRoots() {
+    final Compact c = getCompact();
+    final List<OntologyTermI> roots = new ArrayList<>();
+    for (int i = 0; i < c.terms.length; i++)
+      if (c.parentOffsets[i] == c.parentOffsets[i + 1])
+        roots.add(c.terms[i]);
+    return roots;
+  }
+
+  public Collection<OntologyTermI> getOntologyTerms() {
+    return Collections.unmodifiableList(Arrays.asList(getCompact().terms));
+  }
+
+  public Collection<OntologyTermI> getObsoleteTerms() {
+    final Compact c = getCompact();
+    final List<OntologyTermI> terms = new ArrayList<>(c.obsolete.cardinality());
+    for (int i = c.obsolete.nextSetBit(0); i >= 0; i = c.obsolete.nextSetBit(i + 1))
+      terms.add(c.terms[i]);
+    return Collections.unmodifiableList(terms);
+  }
+
+  public boolean isObsolete(OntologyTermI term) {
+    final Compact c = getCompact();
+    final int i = c.indexOf(term.getTermAccession());
+    return i >= 0 && c.obsolete.get(i);
+  }
+
+  public Set<OntologyTermI> getDirectParents(OntologyTermI term) {
+    final Compact c = getCompact();
+    final int i = c.indexOf(term.getTermAccession());
+    return (i < 0) ? Collections.<OntologyTermI>emptySet()
+      : c.view(c.parents, c.parentOffsets[i], c.parentOffsets[i + 1]);
+  }
+
+  public Set<OntologyTermI> getDirectChildren(OntologyTermI term) {
+    final Compact c = getCompact();
+    final int i = c.indexOf(term.getTermAccession());
+    return (i < 0) ? Collections.<OntologyTermI>emptySet()
+      : c.view(c.children, c.childOffsets[i], c.childOffsets[i + 1]);
+  }
+
+  public Set<OntologyTermI> getAllParents(OntologyTermI term) {
+    return getClosure().getAllParents(term);
+  }
+
+  public Set<OntologyTermI> getAllChildren(OntologyTermI term) {
+    return getClosure().getAllChildren(term);
+  }
+
+  public boolean isChild(OntologyTermI parent, OntologyTermI term) {
+    return getClosure().isChild(parent, term);
+  }
+}
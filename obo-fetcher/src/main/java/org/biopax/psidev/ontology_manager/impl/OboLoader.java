@@ -41,9 +41,43 @@ public class OboLoader extends BaseOBO2AbstractLoader {
 
     private static final String ONTOLOGY_REGISTRY_NAME = "ontology.registry.map";
 
+    private boolean compact;
+
+    private boolean oboEdit;
+
     public OboLoader( ) {
     }
 
+    /**
+     * Whether to build a {@link CompactOntologyAccess} (int arrays)
+     * instead of the default {@link OntologyAccessImpl} (hash maps).
+     *
+     * @param compact true - use the compact storage
+     */
+    public void setCompact( boolean compact ) {
+        this.compact = compact;
+    }
+
+    /**
+     * Whether to parse with the OBO-Edit parser (builds the full OBO session
+     * and OLS term beans, which takes much more time and memory) instead of
+     * the default {@link OboStreamReader}.
+     *
+     * @param oboEdit true - use the OBO-Edit parser
+     */
+    public void setOboEdit( boolean oboEdit ) {
+        this.oboEdit = oboEdit;
+    }
+
+
+    /**
+     * ID of the OBO parser in use (e.g., to tell which one made an ontology snapshot).
+     *
+     * @return "obo-edit" or "obo-stream"
+     */
+    public String getParser( ) {
+        return ( oboEdit ) ? "obo-edit" : "obo-stream";
+    }
 
     /**
      * Parse the given OBO file and build a representation of the DAG into an IntactOntology.
@@ -61,6 +95,16 @@ public class OboLoader extends BaseOBO2AbstractLoader {
             throw new IllegalArgumentException( file.getAbsolutePath() + " could not be read." );
         }
 
+        if ( !oboEdit ) {
+            OntologyAccess ontologyAccess = newOntologyAccess();
+            try ( InputStream is = new FileInputStream( file ) ) {
+                new OboStreamReader( ontologyID ).read( is, ontologyAccess );
+            } catch ( Exception e ) {
+                log.fatal( "Parse failed: " + e.getMessage(), e );
+            }
+            return ontologyAccess;
+        }
+
         try {
             setParser(new OBO2FormatParser(file.getAbsolutePath()));
             process();
@@ -90,6 +134,17 @@ public class OboLoader extends BaseOBO2AbstractLoader {
             throw new IllegalArgumentException( "Please give a non null URL." );
         }
 
+        if ( !oboEdit ) {
+            // stream it (no need for a temporary file)
+            log.info( "Loading URL: " + url );
+            OntologyAccess ontologyAccess = newOntologyAccess();
+            try ( InputStream is = url.openStream() ) {
+                return new OboStreamReader( ontologyID ).read( is, ontologyAccess );
+            } catch ( IOException e ) {
+                throw new OntologyLoaderException( "Error while loading URL (" + url + ")", e );
+            }
+        }
+
         File ontologyFile = null;
 
         try {
@@ -138,9 +193,13 @@ public class OboLoader extends BaseOBO2AbstractLoader {
     }
     
     
+    private OntologyAccess newOntologyAccess() {
+        return (compact) ? new CompactOntologyAccess() : new OntologyAccessImpl();
+    }
+
     private OntologyAccess buildOntology(String ontologyID) {
 
-        OntologyAccess ontologyAccess = new OntologyAccessImpl();
+        OntologyAccess ontologyAccess = newOntologyAccess();
 
         // 1. convert and index all terms (note: at this stage we don't handle the hierarchy)
         for ( Iterator iterator = ontBean.getTerms().iterator(); iterator.hasNext(); ) {
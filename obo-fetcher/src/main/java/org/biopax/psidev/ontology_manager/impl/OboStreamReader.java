@@ -0,0 +1,267 @@
+package org.biopax.psidev.ontology_manager.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.biopax.psidev.ontology_manager.OntologyAccess;
+import org.biopax.psidev.ontology_manager.OntologyTermI;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Single-pass OBO (1.2/1.4 flat file format) reader that puts the terms
+ * (accession, name, synonyms, alt_ids, obsolete flag) and their hierarchy
+ * (is_a, relationship, intersection_of links) directly into an {@link OntologyAccess}.
+ *
+ * Unlike {@link OboLoader} with the OBO-Edit parser, it builds neither
+ * an OBO session nor the intermediate term/relationship/path beans;
+ * all the other tags and stanzas (Typedef, etc.) are simply skipped.
+ *
+ * @author rodche (baderlab.org)
+ */
+public class OboStreamReader {
+
+    private static final Log log = LogFactory.getLog( OboStreamReader.class );
+
+    private static final Set<String> SYNONYM_TAGS = new HashSet<String>( Arrays.asList(
+            "synonym", "exact_synonym", "narrow_synonym", "broad_synonym", "related_synonym" ) );
+
+    private final String ontologyID;
+
+    // term stanza being read
+    private String id;
+    private String name;
+    private String namespace;
+    private boolean obsolete;
+    private final Set<String> synonyms = new LinkedHashSet<String>();
+    private final List<String> parents = new ArrayList<String>();
+
+    private String defaultNamespace;
+    // child, parent accession pairs; added after all the terms are read
+    private final List<String> links = new ArrayList<String>();
+
+    /**
+     * @param ontologyID the ontology ID to assign to the terms
+     */
+    public OboStreamReader( String ontologyID ) {
+        this.ontologyID = ontologyID;
+    }
+
+    /**
+     * Reads the OBO data (UTF-8) into the ontology.
+     *
+     * @param in OBO file content (the stream is not closed here)
+     * @param ontologyAccess empty ontology to fill
+     * @return the same ontology
+     * @throws IOException when reading fails
+     */
+    public OntologyAccess read( InputStream in, OntologyAccess ontologyAccess ) throws IOException {
+        final BufferedReader reader = new BufferedReader( new InputStreamReader( in, StandardCharsets.UTF_8 ) );
+        boolean inTerm = false;
+        String line;
+        while ( ( line = readLine( reader ) ) != null ) {
+            line = line.trim();
+            if ( line.isEmpty() || line.charAt( 0 ) == '!' )
+                continue;
+
+            if ( line.charAt( 0 ) == '[' ) {
+                if ( inTerm )
+                    endTerm( ontologyAccess );
+                inTerm = line.equals( "[Term]" ) || line.equals( "[Instance]" );
+                continue;
+            }
+
+            final int colon = line.indexOf( ':' );
+            if ( colon <= 0 )
+                continue;
+            final String tag = line.substring( 0, colon ).trim();
+            final String value = line.substring( colon + 1 ).trim();
+
+            if ( inTerm ) {
+                tag( tag, value );
+            } else if ( "default-namespace".equals( tag ) ) {
+                defaultNamespace = value( value );
+            }
+        }
+        if ( inTerm )
+            endTerm( ontologyAccess );
+
+        // build the hierarchy
+        for ( int i = 0; i < links.size(); i += 2 ) {
+            // to ignore PSI-MOD included in PSI-MI, simply to check for NPE -
+            try {
+                ontologyAccess.addLink( links.get( i + 1 ), links.get( i ) );
+            } catch ( NullPointerException e ) {
+                log.warn( "Skipping terms relationship " + links.get( i ) + " - " + links.get( i + 1 ) + "; " + e );
+            }
+        }
+        links.clear();
+
+        return ontologyAccess;
+    }
+
+    /*
+     * Reads a line, joining the next one if the line ends with an escaped new line.
+     */
+    private static String readLine( BufferedReader reader ) throws IOException {
+        String line = reader.readLine();
+        while ( line != null && endsWithEscape( line ) ) {
+            final String next = reader.readLine();
+            if ( next == null )
+                break;
+            line = line.substring( 0, line.length() - 1 ) + next;
+        }
+        return line;
+    }
+
+    private static boolean endsWithEscape( String line ) {
+        int n = 0;
+        for ( int i = line.length() - 1; i >= 0 && line.charAt( i ) == '\\'; i-- )
+            n++;
+        return n % 2 == 1;
+    }
+
+    private void tag( String tag, String value ) {
+        if ( "id".equals( tag ) ) {
+            id = value( value );
+        } else if ( "name".equals( tag ) ) {
+            name = value( value );
+        } else if ( "namespace".equals( tag ) ) {
+            namespace = value( value );
+        } else if ( "is_obsolete".equals( tag ) ) {
+            obsolete = "true".equals( value( value ) );
+        } else if ( "alt_id".equals( tag ) ) {
+            addSynonym( value( value ) );
+        } else if ( SYNONYM_TAGS.contains( tag ) ) {
+            addSynonym( quoted( value ) );
+        } else if ( "is_a".equals( tag ) ) {
+            addParent( value( value ) );
+        } else if ( "relationship".equals( tag ) || "intersection_of".equals( tag ) ) {
+            // [relation type] target - the last token is the parent term ID
+            final String v = value( value );
+            if ( v != null ) {
+                final String[] tokens = v.split( "\\s+" );
+                addParent( tokens[tokens.length - 1] );
+            }
+        }
+    }
+
+    private void addSynonym( String synonym ) {
+        if ( synonym != null )
+            synonyms.add( synonym );
+    }
+
+    private void addParent( String parent ) {
+        if ( parent != null )
+            parents.add( parent );
+    }
+
+    private void endTerm( OntologyAccess ontologyAccess ) {
+        final String ns = ( namespace != null ) ? namespace : defaultNamespace;
+
+        // skip the built-in constructs and the PSI-MOD terms included into PSI-MI files
+        if ( id != null && !id.toLowerCase().startsWith( "obo:" )
+                && !( "PSI-MOD".equals( ns ) && ( "PSI-MI".equals( ontologyID ) || "MI".equals( ontologyID ) ) ) )
+        {
+            // if the ID is a URL, e.g. http://www.ebi.ac.uk/EFO_1234, add the last part as synonym
+            if ( id.toLowerCase().startsWith( "http:" ) && id.lastIndexOf( '/' ) < id.length() - 1 )
+                synonyms.add( id.substring( id.lastIndexOf( '/' ) + 1 ) );
+
+            final OntologyTermI term = new OntologyTermImpl( ontologyID, id, name );
+            term.getNameSynonyms().addAll( synonyms );
+            ontologyAccess.addTerm( term );
+            if ( obsolete )
+                ontologyAccess.addObsoleteTerm( term );
+
+            for ( String parent : parents ) {
+                links.add( id );
+                links.add( parent );
+            }
+        }
+
+        id = null;
+        name = null;
+        namespace = null;
+        obsolete = false;
+        synonyms.clear();
+        parents.clear();
+    }
+
+    /*
+     * Tag value w/o the trailing comment ("! ...") and modifiers ("{...}"), unescaped.
+     */
+    static String value( String value ) {
+        int end = value.length();
+        boolean quoted = false;
+        for ( int i = 0; i < end; i++ ) {
+            final char c = value.charAt( i );
+            if ( c == '\\' ) {
+                i++;
+            } else if ( c == '"' ) {
+                quoted = !quoted;
+            } else if ( c == '!' && !quoted ) {
+                end = i;
+            }
+        }
+        String v = value.substring( 0, end ).trim();
+        if ( v.endsWith( "}" ) ) {
+            final int open = lastUnescaped( v, '{' );
+            if ( open >= 0 )
+                v = v.substring( 0, open ).trim();
+        }
+        return ( v.isEmpty() ) ? null : unescape( v );
+    }
+
+    /*
+     * The first quoted string of the tag value (e.g., synonym text), unescaped.
+     */
+    static String quoted( String value ) {
+        final int start = value.indexOf( '"' );
+        if ( start < 0 )
+            return null;
+        for ( int i = start + 1; i < value.length(); i++ ) {
+            final char c = value.charAt( i );
+            if ( c == '\\' ) {
+                i++;
+            } else if ( c == '"' ) {
+                final String v = unescape( value.substring( start + 1, i ) ).trim();
+                return ( v.isEmpty() ) ? null : v;
+            }
+        }
+        return null;
+    }
+
+    private static int lastUnescaped( String s, char ch ) {
+        int found = -1;
+        for ( int i = 0; i < s.length(); i++ ) {
+            final char c = s.charAt( i );
+            if ( c == '\\' )
+                i++;
+            else if ( c == ch )
+                found = i;
+        }
+        return found;
+    }
+
+    static String unescape( String s ) {
+        if ( s.indexOf( '\\' ) < 0 )
+            return s;
+        final StringBuilder sb = new StringBuilder( s.length() );
+        for ( int i = 0; i < s.length(); i++ ) {
+            char c = s.charAt( i );
+            if ( c == '\\' && i + 1 < s.length() ) {
+                c = s.charAt( ++i );
+                switch ( c ) {
+                    case 'n': sb.append( '\n' ); break;
+                    case 't': sb.append( '\t' ); break;
+                    case 'W': sb.append( ' ' ); break;
+                    default: sb.append( c );
+                }
+            } else {
+                sb.append( c );
+            }
+        }
+        return sb.toString();
+    }
+}
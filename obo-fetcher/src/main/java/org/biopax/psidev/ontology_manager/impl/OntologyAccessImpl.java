@@ -83,6 +83,12 @@ public class OntologyAccessImpl implements OntologyAccess {
      */
     private Collection<OntologyTermI> obsoleteTerms = new ArrayList<OntologyTermI>();
 
+    /**
+     * Transitive closure of the hierarchy, computed on first request
+     * (and dropped when a term or link is added).
+     */
+    private volatile TermClosure closure = null;
+
     /////////////////////////////
     // Public methods
 
@@ -139,8 +145,8 @@ public class OntologyAccessImpl implements OntologyAccess {
 	}
 
     /**
-     * Remove the Root cache from memory.<br/> That method should be called every time the collection of OntologyTerm is
-     * altered.
+     * Remove the Root and closure caches from memory.<br/> That method should be called every time the collection of
+     * OntologyTerm is altered.
      */
     private void flushRootsCache() {
         if ( roots != null ) {
@@ -148,6 +154,7 @@ public class OntologyAccessImpl implements OntologyAccess {
             roots.clear();
             roots = null;
         }
+        closure = null;
     }
 
     /**
@@ -254,42 +261,59 @@ public class OntologyAccessImpl implements OntologyAccess {
     }
 
     public Set<OntologyTermI> getAllParents( OntologyTermI term ) {
-        Set<OntologyTermI> parents = new HashSet<OntologyTermI>();
-        getAllParents( term, parents );
-        return parents;
+        return getClosure().getAllParents( term );
     }
 
-    private void getAllParents( OntologyTermI term, Set<OntologyTermI> parents ) {
-        final Collection<OntologyTermI> directParents = getDirectParents( term );
-        parents.addAll( directParents );
-        for ( OntologyTermI parent : directParents ) {
-            getAllParents( parent, parents );
-        }
+    public Set<OntologyTermI> getAllChildren( OntologyTermI term ) {
+        return getClosure().getAllChildren( term );
     }
 
-    public Set<OntologyTermI> getAllChildren( OntologyTermI term ) {
-        Set<OntologyTermI> children = new HashSet<OntologyTermI>();
-        getAllChildren( term, children );
-        return children;
+    public boolean isChild( OntologyTermI parent, OntologyTermI term ) {
+        return getClosure().isChild( parent, term );
     }
 
-    private void getAllChildren( OntologyTermI term, Set<OntologyTermI> children ) {
-         getAllChildren( "", term, children, new HashSet(512) );
+    private TermClosure getClosure() {
+        TermClosure c = closure;
+        if ( c == null ) {
+            synchronized ( this ) {
+                c = closure;
+                if ( c == null ) {
+                    c = buildClosure();
+                    closure = c;
+                }
+            }
+        }
+        return c;
     }
 
-    private void getAllChildren( String prefix, OntologyTermI term, Set<OntologyTermI> children, Set<String> traversedChildren ) {
-        if( traversedChildren.contains( term.getTermAccession() ) ) {
-//            System.out.println( prefix.replaceAll( " ", "#" )+" > "+ term.getTermAccession() +" / "+ term.getPreferredName() +" )" );
-            return;
-        } else {
-//            System.out.println( prefix +" > "+ term.getTermAccession() +" / "+ term.getPreferredName() +" )" );
+    private TermClosure buildClosure() {
+        final int n = id2ontologyTerm.size();
+        final OntologyTermI[] terms = id2ontologyTerm.values().toArray( new OntologyTermI[n] );
+        final Map<String, Integer> index = new HashMap<String, Integer>( n * 2 );
+        for ( int i = 0; i < n; i++ ) {
+            index.put( terms[i].getTermAccession(), i );
         }
-        final Collection<OntologyTermI> directChildren = getDirectChildren( term );
-        traversedChildren.add( term.getTermAccession() );
-        children.addAll( directChildren );
-        for ( OntologyTermI child : directChildren ) {
-            getAllChildren( prefix+"     ", child, children, traversedChildren );
+
+        final int[][] direct = new int[n][];
+        for ( int i = 0; i < n; i++ ) {
+            final Set<OntologyTermI> ps = getDirectParents( terms[i] );
+            direct[i] = new int[ps.size()];
+            int k = 0;
+            for ( OntologyTermI p : ps ) {
+                final Integer parent = index.get( p.getTermAccession() );
+                if ( parent == null ) {
+                    log.warn( "Skipped unknown parent " + p.getTermAccession()
+                              + " of term " + terms[i].getTermAccession() + " in " + name );
+                } else {
+                    direct[i][k++] = parent;
+                }
+            }
+            if ( k < direct[i].length ) {
+                direct[i] = Arrays.copyOf( direct[i], k );
+            }
         }
+
+        return new TermClosure( terms, direct, acc -> index.getOrDefault( acc, -1 ) );
     }
 
     /////////////////////////////////
@@ -2,15 +2,24 @@ package org.biopax.psidev.ontology_manager.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.commons.text.StringEscapeUtils;
 import org.biopax.psidev.ontology_manager.OntologyAccess;
 import org.biopax.psidev.ontology_manager.OntologyManager;
 import org.biopax.psidev.ontology_manager.OntologyTermI;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Central access to configured OntologyAccess.
@@ -24,6 +33,7 @@ public class OntologyManagerImpl implements OntologyManager {
 
   private static final Log log = LogFactory.getLog(OntologyManagerImpl.class);
   private static final ResourceLoader LOADER = new DefaultResourceLoader();
+  private static final long LOADER_STACK_SIZE = 16L * 1024 * 1024;
 
   /**
    * The Map that holds the Ontologies.
@@ -31,11 +41,89 @@ public class OntologyManagerImpl implements OntologyManager {
    */
   private Map<String, OntologyAccess> ontologyMap;
 
+  /**
+   * Where to save/find the ontology snapshots (null - do not use snapshots);
+   * by default, it's the 'obo.snapshot.dir' system property value, if set.
+   */
+  private File snapshotDir = (System.getProperty("obo.snapshot.dir") != null)
+    ? new File(System.getProperty("obo.snapshot.dir")) : null;
+
+  /**
+   * When true, {@link #loadOntologies(Properties)} loads only the {@link #warmup} ontologies,
+   * and the rest - on first access (see {@link #getOntology(String)}).
+   */
+  private boolean lazy;
+
+  /**
+   * IDs of the ontologies to load immediately in the lazy mode.
+   */
+  private Set<String> warmup = Collections.emptySet();
+
+  /**
+   * Whether to store the ontologies in the compact form (see {@link CompactOntologyAccess}).
+   */
+  private boolean compact;
+
+  /**
+   * Names to assign to the ontologies once loaded (ID is used by default).
+   */
+  private Map<String, String> names = Collections.emptyMap();
+
+  /**
+   * Term accession prefix (before the colon, upper case) to ontology ID map,
+   * for the accessions that do not start with the ontology ID (e.g. "MI:0018" - MI);
+   * used to load only the ontology a not yet indexed accession belongs to, in the lazy mode.
+   */
+  private Map<String, String> prefixes = Collections.emptyMap();
+
+  /**
+   * Configured but not yet loaded ontologies (ID to resource location), in the lazy mode.
+   */
+  private final Map<String, String> locations = new ConcurrentHashMap<>();
+
+  /**
+   * Lowercase term name/synonym to terms index, by ontology ID.
+   */
+  private final Map<String, Map<String, Set<OntologyTermI>>> namesIndex = new ConcurrentHashMap<>();
+
+  /**
+   * Lowercase term name/synonym to terms index for all the loaded ontologies.
+   */
+  private volatile Map<String, Set<OntologyTermI>> allNamesIndex = Collections.emptyMap();
+
+  /**
+   * Term accession to term index for all the loaded ontologies.
+   */
+  private final Map<String, OntologyTermI> accessionIndex = new ConcurrentHashMap<>();
+
+  /**
+   * Max. number of resolved CV URIs to keep in the {@link #uriCache}.
+   */
+  private volatile int maxCachedUris = 10000;
+
+  /**
+   * Recently resolved identifiers.org and urn:miriam CV URIs (the least recently used
+   * are evicted when there are more than {@link #maxCachedUris}); value is empty if there's no such term.
+   * Access-ordered, so even get() modifies it - use only when synchronized on the map.
+   */
+  private final Map<String, Optional<OntologyTermI>> uriCache =
+    new LinkedHashMap<String, Optional<OntologyTermI>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Optional<OntologyTermI>> eldest) {
+        return size() > maxCachedUris;
+      }
+    };
+
+  /**
+   * Ontologies being loaded on demand (to load each one once, when requested concurrently).
+   */
+  private final Map<String, FutureTask<OntologyAccess>> loading = new ConcurrentHashMap<>();
+
   /**
    * Create a new OntologyManagerImpl with no configuration (no associated ontology).
    */
   public OntologyManagerImpl() {
-    ontologyMap = new HashMap<>();
+    ontologyMap = new ConcurrentHashMap<>();
   }
 
   /**
@@ -50,44 +138,339 @@ public class OntologyManagerImpl implements OntologyManager {
     log.debug("Successfully configured OntologyManagerImpl.");
   }
 
-  public void putOntology( String ontologyID, OntologyAccess ontologyAccess ) {
+  public File getSnapshotDir() {
+    return snapshotDir;
+  }
+
+  /**
+   * Sets the directory where to save the binary snapshots of the loaded ontologies,
+   * in order to load them faster next time (unless the OBO file has changed).
+   * Must be set before {@link #loadOntologies(Properties)} is called.
+   * The directory must be private to the application (snapshots found there are trusted).
+   *
+   * @param snapshotDir directory or null (default - always parse OBO files)
+   */
+  public void setSnapshotDir(File snapshotDir) {
+    this.snapshotDir = snapshotDir;
+  }
+
+  public boolean isLazy() {
+    return lazy;
+  }
+
+  /**
+   * Whether to load the ontologies on demand (except for the warmup ones).
+   * Must be set before {@link #loadOntologies(Properties)} is called.
+   *
+   * @param lazy true - load an ontology on first access; false (default) - load all at once
+   */
+  public void setLazy(boolean lazy) {
+    this.lazy = lazy;
+  }
+
+  public boolean isCompact() {
+    return compact;
+  }
+
+  /**
+   * Whether to store the loaded ontologies in the compact form
+   * (int arrays instead of hash maps; uses less memory).
+   * Must be set before {@link #loadOntologies(Properties)} is called.
+   *
+   * @param compact true - use {@link CompactOntologyAccess}; false (default) - {@link OntologyAccessImpl}
+   */
+  public void setCompact(boolean compact) {
+    this.compact = compact;
+  }
+
+  public Set<String> getWarmup() {
+    return warmup;
+  }
+
+  /**
+   * Sets the ontologies to load right away in the lazy mode.
+   *
+   * @param warmup ontology IDs
+   */
+  public void setWarmup(Set<String> warmup) {
+    this.warmup = (warmup != null) ? warmup : Collections.emptySet();
+  }
+
+  /**
+   * Sets the names to assign to the ontologies once they're loaded
+   * (otherwise, the name is the ontology ID)
+   *
+   * @param names ontology ID to name map
+   */
+  public void setNames(Map<String, String> names) {
+    this.names = (names != null) ? names : Collections.emptyMap();
+  }
+
+  /**
+   * Sets the term accession prefix (case insensitive) to ontology ID mapping,
+   * for those ontologies whose term accessions do not start with the ontology ID
+   * (by default, e.g., "GO:0005654" belongs to GO).
+   *
+   * @param prefixes accession prefix to ontology ID map
+   */
+  public void setPrefixes(Map<String, String> prefixes) {
+    final Map<String, String> map = new HashMap<>();
+    if (prefixes != null)
+      for (Map.Entry<String, String> e : prefixes.entrySet())
+        map.put(e.getKey().toUpperCase(Locale.ROOT), e.getValue());
+    this.prefixes = map;
+  }
+
+  public int getMaxCachedUris() {
+    return maxCachedUris;
+  }
+
+  /**
+   * Sets the max. number of recently resolved CV URIs to cache
+   * (see {@link #getTermByUri(String)}).
+   *
+   * @param maxCachedUris positive number (default is 10000)
+   */
+  public void setMaxCachedUris(int maxCachedUris) {
+    if (maxCachedUris < 1)
+      throw new IllegalArgumentException("maxCachedUris must be positive: " + maxCachedUris);
+    this.maxCachedUris = maxCachedUris;
+  }
+
+  /**
+   * Adds or replaces the ontology, unescapes XML entities in its term names
+   * and indexes them (so the ontology must be fully loaded at this point).
+   *
+   * @param ontologyID ontology ID
+   * @param ontologyAccess ontology
+   */
+  public synchronized void putOntology( String ontologyID, OntologyAccess ontologyAccess ) {
     if ( ontologyMap.containsKey( ontologyID ) ) {
       log.warn( "OntologyAccess with the ID '" + ontologyID + "' already exists. Overwriting!" );
     }
-    ontologyMap.put( ontologyID, ontologyAccess );
+    unescapeNames( ontologyAccess );
+    namesIndex.put( ontologyID, indexNames( ontologyID, ontologyAccess ) );
+    OntologyAccess old = ontologyMap.put( ontologyID, ontologyAccess );
+
+    if ( old != null ) {
+      for ( OntologyTermI term : old.getOntologyTerms() )
+        accessionIndex.remove( term.getTermAccession(), term );
+    }
+    for ( OntologyTermI term : ontologyAccess.getOntologyTerms() )
+      accessionIndex.putIfAbsent( term.getTermAccession(), term );
+    synchronized (uriCache) {
+      uriCache.clear(); //there might be a term for previously unknown URI now
+    }
+
+    // re-build the combined index
+    Map<String, Set<OntologyTermI>> all = new HashMap<>();
+    for ( Map<String, Set<OntologyTermI>> index : namesIndex.values() ) {
+      for ( Map.Entry<String, Set<OntologyTermI>> e : index.entrySet() ) {
+        all.merge( e.getKey(), e.getValue(), (a, b) -> {
+          Set<OntologyTermI> terms = new HashSet<>( a );
+          terms.addAll( b );
+          return terms;
+        });
+      }
+    }
+    allNamesIndex = all;
+  }
+
+  /*
+   * Fixes XML escape symbols (e.g. "&apos;") in the term names and synonyms
+   * that some OBO files/parsers produce; done once, before the ontology is shared.
+   */
+  private static void unescapeNames( OntologyAccess ontologyAccess ) {
+    for ( OntologyTermI term : ontologyAccess.getOntologyTerms() ) {
+      String name = term.getPreferredName();
+      if ( name != null && name.indexOf( '&' ) >= 0 )
+        term.setPreferredName( StringEscapeUtils.unescapeXml( name ) );
+      boolean escaped = false;
+      for ( String syn : term.getNameSynonyms() ) {
+        if ( syn.indexOf( '&' ) >= 0 ) {
+          escaped = true;
+          break;
+        }
+      }
+      if ( escaped ) {
+        List<String> synonyms = new ArrayList<>( term.getNameSynonyms().size() );
+        for ( String syn : term.getNameSynonyms() )
+          synonyms.add( StringEscapeUtils.unescapeXml( syn ) );
+        term.setNameSynonyms( synonyms );
+      }
+    }
+  }
+
+  private static Map<String, Set<OntologyTermI>> indexNames( String ontologyID, OntologyAccess ontologyAccess ) {
+    Map<String, Set<OntologyTermI>> index = new HashMap<>();
+    for ( OntologyTermI term : ontologyAccess.getOntologyTerms() ) {
+      String prefName = term.getPreferredName();
+      if ( prefName == null ) {
+        log.error( "NULL preffered name for term "
+                     + term.getTermAccession() + " in " + ontologyID + "; report to authors." );
+      } else {
+        index.computeIfAbsent( prefName.toLowerCase( Locale.ROOT ), k -> new HashSet<>( 2 ) ).add( term );
+      }
+      for ( String syn : term.getNameSynonyms() ) {
+        index.computeIfAbsent( syn.toLowerCase( Locale.ROOT ), k -> new HashSet<>( 2 ) ).add( term );
+      }
+    }
+    return index;
   }
 
   public Set<String> getOntologyIDs() {
-    return ontologyMap.keySet();
+    if ( locations.isEmpty() )
+      return ontologyMap.keySet();
+
+    // including not loaded yet
+    Set<String> ids = new HashSet<>( ontologyMap.keySet() );
+    ids.addAll( locations.keySet() );
+    return ids;
   }
 
+  /**
+   * Gets the ontology; in the lazy mode, loads it
+   * if it's configured but not loaded yet.
+   *
+   * @param ontologyID ontology ID
+   * @return ontology or null when there's no such ontology
+   * @throws IllegalStateException when it failed to load the ontology
+   */
   public OntologyAccess getOntology( String ontologyID ) {
-    return ontologyMap.get( ontologyID );
+    OntologyAccess oa = ontologyMap.get( ontologyID );
+    if ( oa == null && locations.containsKey( ontologyID ) ) {
+      oa = loadOnDemand( ontologyID );
+    }
+    return oa;
   }
 
   public boolean containsOntology( String ontologyID ) {
+    return ontologyMap.containsKey( ontologyID ) || locations.containsKey( ontologyID );
+  }
+
+  /**
+   * Whether the ontology is already loaded (in the lazy mode, it may be configured but not loaded yet).
+   *
+   * @param ontologyID ontology ID
+   * @return true if loaded
+   */
+  public boolean isLoaded( String ontologyID ) {
     return ontologyMap.containsKey( ontologyID );
   }
 
+  private OntologyAccess loadOnDemand( final String ontologyID ) {
+    FutureTask<OntologyAccess> task = new FutureTask<>(() -> {
+      OntologyAccess oa = ontologyMap.get( ontologyID );
+      if ( oa != null )
+        return oa; //just loaded by another thread
+      oa = loadOntology( ontologyID, locations.get( ontologyID ) );
+      putOntology( ontologyID, oa );
+      locations.remove( ontologyID );
+      return oa;
+    });
+
+    FutureTask<OntologyAccess> current = loading.putIfAbsent( ontologyID, task );
+    if ( current == null ) {
+      // this thread has to load it (others, if any, wait for the result)
+      current = task;
+      newLoaderThread( task ).start();
+    }
+
+    try {
+      return current.get();
+    } catch ( ExecutionException e ) {
+      throw new IllegalStateException( e.getCause().getMessage(), e.getCause() );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException( "Interrupted while loading ontology " + ontologyID, e );
+    } finally {
+      loading.remove( ontologyID, current ); //can try again if failed
+    }
+  }
+
+  /*
+   * The OBO parser is deeply recursive; give it more stack than a default thread has.
+   */
+  private static Thread newLoaderThread( Runnable r ) {
+    Thread t = new Thread( null, r, "ontology-loader", LOADER_STACK_SIZE );
+    t.setDaemon( true );
+    return t;
+  }
+
+  /**
+   * Loads the ontologies concurrently (these are independent).
+   * If any fails, it throws one exception about all the failed ones
+   * (the rest are loaded and available anyway).
+   * In the lazy mode, it loads only the warmup ones and
+   * remembers where to get the rest when they are requested.
+   *
+   * @param config configuration properties (ID=resource_location)
+   * @throws OntologyLoaderException when the config is empty or loading of some ontology failed.
+   */
   public void loadOntologies( Properties config )
     throws OntologyLoaderException
   {
-    if ( config != null && !config.isEmpty()) {
-      for ( Object ontId : config.keySet() )
-      {
-        String key = (String) ontId;
+    if ( config == null || config.isEmpty()) {
+      throw new OntologyLoaderException("OntologyAccess configuration map is missing or empty (map)!");
+    }
+
+    final Set<String> ids = new TreeSet<>(config.stringPropertyNames());
+    if (lazy) {
+      for (String key : ids)
+        if (!warmup.contains(key))
+          locations.put(key, config.getProperty(key));
+      ids.retainAll(warmup);
+      log.info("Ontologies to load now: " + ids + ", on demand: " + locations.keySet());
+      if (ids.isEmpty())
+        return;
+    }
+
+    final int nThreads = Math.min(ids.size(), Runtime.getRuntime().availableProcessors());
+    final ExecutorService pool = Executors.newFixedThreadPool(nThreads, OntologyManagerImpl::newLoaderThread);
+
+    final Map<String, Future<OntologyAccess>> tasks = new TreeMap<>();
+    try {
+      for ( String key : ids ) {
+        final String location = config.getProperty(key);
+        tasks.put(key, pool.submit(() -> loadOntology(key, location)));
+      }
+
+      final List<Throwable> errors = new ArrayList<>();
+      for ( Map.Entry<String, Future<OntologyAccess>> task : tasks.entrySet() ) {
         try {
-          URI uri = LOADER.getResource(config.getProperty(key)).getURI();
-          log.info( "Loading ontology: ID= " + ontId + ", uri=" + uri);
-          OntologyAccess oa = fetchOntology( key, "OBO", uri );
-          putOntology(key, oa);
-        } catch ( Throwable e ) { //using Throwable because StackOverflowError is also possible here
-          throw new OntologyLoaderException("Failed loading/parsing ontology " + key
-                                              + " from " + config.getProperty(key), e );
+          putOntology(task.getKey(), task.getValue().get());
+        } catch (ExecutionException e) {
+          log.error(e.getCause().getMessage());
+          errors.add(e.getCause());
         }
       }
-    } else {
-      throw new OntologyLoaderException("OntologyAccess configuration map is missing or empty (map)!");
+      if (!errors.isEmpty()) {
+        OntologyLoaderException error = new OntologyLoaderException("Failed loading "
+          + errors.size() + " of " + tasks.size() + " ontologies", errors.get(0));
+        for (Throwable t : errors.subList(1, errors.size()))
+          error.addSuppressed(t);
+        throw error;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OntologyLoaderException("Interrupted while loading ontologies", e);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private OntologyAccess loadOntology( String key, String location ) throws OntologyLoaderException {
+    final long start = System.currentTimeMillis();
+    try {
+      URI uri = LOADER.getResource(location).getURI();
+      log.info( "Loading ontology: ID= " + key + ", uri=" + uri);
+      OntologyAccess oa = fetchOntology( key, "OBO", uri );
+      oa.setName( names.getOrDefault( key, key ) );
+      log.info( "Loaded ontology " + key + " in " + (System.currentTimeMillis() - start) + " ms");
+      return oa;
+    } catch ( Throwable e ) { //using Throwable because StackOverflowError is also possible here
+      throw new OntologyLoaderException("Failed loading/parsing ontology " + key
+                                          + " from " + location, e );
     }
   }
 
@@ -107,8 +490,28 @@ public class OntologyManagerImpl implements OntologyManager {
           throw new IllegalArgumentException( "The given CvSource doesn't have a valid URL: " + uri );
         }
 
-        // parse the URL and load the ontology
         OboLoader loader = new OboLoader();
+        loader.setCompact( compact );
+
+        // restore from the snapshot if the OBO file has not changed since it was saved (by the same parser)
+        byte[] checksum = null;
+        File snapshot = null;
+        if ( snapshotDir != null ) {
+          try {
+            checksum = OntologySnapshot.checksum( url );
+            snapshot = new File( snapshotDir, ontologyID + "-" + loader.getParser() + ".snapshot" );
+            oa = OntologySnapshot.read( snapshot, checksum, loader.getParser(), ontologyID, compact );
+          } catch ( IOException e ) {
+            log.warn( "Cannot use the ontology snapshot for " + ontologyID + "; " + e );
+          }
+        }
+
+        if ( oa != null ) {
+          log.info( "Restored ontology " + ontologyID + " from the snapshot " + snapshot );
+          return oa;
+        }
+
+        // parse the URL and load the ontology
         try {
           log.debug( "Parsing ontology at URL: " + url );
           oa = loader.parseOboFile( url, ontologyID );
@@ -116,6 +519,15 @@ public class OntologyManagerImpl implements OntologyManager {
         } catch ( Exception e ) {
           throw new OntologyLoaderException( "OboFile parser failed with Exception: ", e );
         }
+
+        if ( checksum != null ) {
+          try {
+            OntologySnapshot.write( oa, checksum, loader.getParser(), snapshot );
+            log.info( "Saved ontology " + ontologyID + " snapshot " + snapshot );
+          } catch ( IOException e ) {
+            log.warn( "Failed saving the ontology snapshot " + snapshot + "; " + e );
+          }
+        }
       }
     } else {
       throw new OntologyLoaderException( "Unsupported ontology format: " + format );
@@ -131,54 +543,98 @@ public class OntologyManagerImpl implements OntologyManager {
     return searchTermByName(name, null);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * This is a lookup in the names index built when the ontologies are loaded.
+   * In the lazy mode, when no ontologies are specified, it searches only in those
+   * already loaded (a name does not tell which ontology to load).
+   */
   public Set<OntologyTermI> searchTermByName(String name, Set<String> ontologies) {
-    Set<OntologyTermI> found  = new HashSet<OntologyTermI>();
     assert name!=null : "searchTermByName: null arg.";
+    final String key = name.toLowerCase(Locale.ROOT);
+    final Set<OntologyTermI> found = new HashSet<>();
 
-    Set<String> ontologyIDs = new HashSet<String>(getOntologyIDs());
-    if(ontologies != null && !ontologies.isEmpty())
-      ontologyIDs.retainAll(ontologies);
-
-    for(String ontologyId: ontologyIDs) {
-      OntologyAccess oa = getOntology(ontologyId);
-      for(OntologyTermI term : oa.getOntologyTerms()) {
-        String prefName = term.getPreferredName();
-        if(prefName == null) {
-          log.error("searchTermByName: NULL preffered name for term "
-                      + term.getTermAccession() + " in " + ontologyId + "; report to authors.");
-        } else if(name.equalsIgnoreCase(prefName)) {
-          found.add(term);
-        } else {
-          for(String syn : term.getNameSynonyms()) {
-            if(syn.equalsIgnoreCase(name)) {
-              found.add(term);
-            }
-          }
-        }
+    if (ontologies == null || ontologies.isEmpty()) {
+      found.addAll(allNamesIndex.getOrDefault(key, Collections.emptySet()));
+    } else {
+      for (String id : ontologies) {
+        if (getOntology(id) != null) //loads (if lazy and not loaded yet)
+          found.addAll(namesIndex.get(id).getOrDefault(key, Collections.emptySet()));
       }
     }
 
     return found;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * In the lazy mode, if the term is not found in the loaded ontologies,
+   * it loads only the ontology the accession prefix points to (see {@link #setPrefixes(Map)}).
+   */
   public OntologyTermI findTermByAccession(String acc) {
-    OntologyTermI term = null;
+    OntologyTermI term = accessionIndex.get(acc);
 
-    for(String ontologyId : getOntologyIDs()) {
-      term = getOntology(ontologyId).getTermForAccession(acc);
-      if(term != null)
-        break;
+    if (term == null && !locations.isEmpty()) {
+      String id = ontologyIdOf(acc);
+      if (id != null && locations.containsKey(id)) {
+        getOntology(id); //loads now
+        term = accessionIndex.get(acc);
+      }
     }
 
     return term;
   }
 
+  /*
+   * Finds the configured ontology ID by the term accession prefix, e.g. "MI:0018" - MI
+   * (case insensitive); returns null if the accession has no prefix or there's no such ontology.
+   */
+  private String ontologyIdOf(String acc) {
+    int pos = acc.indexOf(':');
+    if (pos <= 0)
+      return null;
+    String prefix = acc.substring(0, pos).toUpperCase(Locale.ROOT);
+    String id = prefixes.get(prefix);
+    if (id != null)
+      return id;
+    for (String ontologyID : getOntologyIDs())
+      if (ontologyID.equalsIgnoreCase(prefix))
+        return ontologyID;
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The results for the recently used identifiers.org and urn:miriam URIs are cached
+   * (see {@link #setMaxCachedUris(int)}).
+   */
+  public OntologyTermI getTermByUri(String uri) {
+    if (!uri.startsWith("urn:miriam:") && !uri.startsWith("http://identifiers.org/"))
+      return resolveTermByUri(uri); //not a CV URI (not cached)
+
+    Optional<OntologyTermI> term;
+    synchronized (uriCache) {
+      term = uriCache.get(uri);
+    }
+    if (term == null) {
+      // resolve w/o holding the lock (might load an ontology in the lazy mode)
+      term = Optional.ofNullable(resolveTermByUri(uri));
+      synchronized (uriCache) {
+        uriCache.put(uri, term);
+      }
+    }
+    return term.orElse(null);
+  }
+
   /*
    * 	Some CV URI/URLs may include
    *  'obo.' in it (now deprecated) or not, like e.g.
    *  'obo.so', 'obo.go' vs. simply 'so', 'go'
    */
-  public OntologyTermI getTermByUri(String uri) {
+  private OntologyTermI resolveTermByUri(String uri) {
     if (uri.startsWith("urn:miriam:obo.")) {
       int pos = uri.indexOf(':', 15); //e.g. the colon after 'go' in "...:obo.go:GO%3A0005654"
       String acc = uri.substring(pos + 1);
@@ -245,8 +701,11 @@ public class OntologyManagerImpl implements OntologyManager {
   }
 
   public boolean isChild(String parentUrn, String urn) {
-    return getAllParents(urn).contains(parentUrn)
-             || getAllChildren(parentUrn).contains(urn);
+    OntologyTermI parent = getTermByUri(parentUrn);
+    OntologyTermI term = getTermByUri(urn);
+    if (parent == null || term == null || !parent.getOntologyId().equals(term.getOntologyId()))
+      return false;
+    return getOntology(term.getOntologyId()).isChild(parent, term);
   }
 
   public OntologyTermI findTerm(OntologyAccess ontologyAccess, String term)
@@ -261,8 +720,11 @@ public class OntologyManagerImpl implements OntologyManager {
 
       if (ot == null) {
         //search again using the parameter as term's name/synonym
-        Set<OntologyTermI> ots = searchTermByName(term,
-          Collections.singleton(ontologyAccess.getName()));
+        //(in that ontology; its name can be other than the ID)
+        Set<OntologyTermI> ots = new HashSet<>();
+        for (Map.Entry<String, OntologyAccess> e : ontologyMap.entrySet())
+          if (e.getValue() == ontologyAccess)
+            ots = searchTermByName(term, Collections.singleton(e.getKey()));
         if (ots.size() == 1) //use if unambiguous
           ot = ots.iterator().next();
         else
@@ -0,0 +1,185 @@
+package org.biopax.psidev.ontology_manager.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.biopax.psidev.ontology_manager.OntologyAccess;
+import org.biopax.psidev.ontology_manager.OntologyTermI;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Compact binary snapshot of a loaded ontology (terms, synonyms, obsolete flags and links),
+ * saved along with the source OBO file checksum and the parser ID, to quickly restore
+ * the OntologyAccess next time instead of parsing the same OBO file again
+ * (with the same parser, for different parsers may produce somewhat different terms and links).
+ *
+ * Note: a snapshot is trusted if its checksum matches the OBO file content,
+ * so the snapshots directory must not be writable by other users.
+ *
+ * @author rodche (baderlab.org)
+ */
+public final class OntologySnapshot {
+
+  private static final Log log = LogFactory.getLog(OntologySnapshot.class);
+
+  private static final int MAGIC = 0x0B0CAC4E;
+  // format version; increment when the format or the parsed content changes
+  // (2 - the streaming OBO reader)
+  private static final int VERSION = 2;
+
+  private OntologySnapshot() {
+  }
+
+  /**
+   * Calculates the checksum (SHA-256) of the resource content.
+   *
+   * @param url resource location
+   * @return checksum
+   * @throws IOException when it cannot read the resource
+   */
+  public static byte[] checksum(URL url) throws IOException {
+    final MessageDigest md;
+    try {
+      md = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+    try (InputStream is = url.openStream()) {
+      byte[] buf = new byte[64 * 1024];
+      int n;
+      while ((n = is.read(buf)) != -1)
+        md.update(buf, 0, n);
+    }
+    return md.digest();
+  }
+
+  /**
+   * Saves the ontology to the file (replaces the existing one).
+   *
+   * @param ontologyAccess loaded ontology
+   * @param checksum source OBO file checksum
+   * @param parser ID of the parser that loaded the ontology (see {@link OboLoader#getParser()})
+   * @param file snapshot file
+   * @throws IOException when it cannot write
+   */
+  public static void write(OntologyAccess ontologyAccess, byte[] checksum, String parser, File file)
+    throws IOException
+  {
+    final File dir = file.getAbsoluteFile().getParentFile();
+    if (dir.mkdirs()) {
+      // new directory - accessible by the owner only
+      dir.setReadable(false, false);
+      dir.setWritable(false, false);
+      dir.setExecutable(false, false);
+      dir.setReadable(true, true);
+      dir.setWritable(true, true);
+      dir.setExecutable(true, true);
+    }
+    // write to a temporary file first, then move (other processes might be reading the snapshot)
+    final File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(parser);
+        out.writeInt(checksum.length);
+        out.write(checksum);
+
+        final List<OntologyTermI> terms = new ArrayList<>(ontologyAccess.getOntologyTerms());
+        final Map<OntologyTermI, Integer> index = new HashMap<>(terms.size() * 2);
+        out.writeInt(terms.size());
+        for (OntologyTermI term : terms) {
+          index.put(term, index.size());
+          out.writeUTF(term.getTermAccession());
+          writeString(out, term.getPreferredName());
+          out.writeInt(term.getNameSynonyms().size());
+          for (String syn : term.getNameSynonyms())
+            out.writeUTF(syn);
+          out.writeBoolean(ontologyAccess.isObsolete(term));
+        }
+
+        // parent -> children links (by term index)
+        for (OntologyTermI parent : terms) {
+          Set<OntologyTermI> children = ontologyAccess.getDirectChildren(parent);
+          out.writeInt(children.size());
+          for (OntologyTermI child : children)
+            out.writeInt(index.get(child));
+        }
+      }
+      Files.move(tmp.toPath(), file.toPath(),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      tmp.delete(); //if not moved
+    }
+  }
+
+  /**
+   * Restores the ontology from the snapshot file, unless the file is missing,
+   * unreadable, stale (other checksum), or was made by another parser or version.
+   *
+   * @param file snapshot file
+   * @param checksum current source OBO file checksum
+   * @param parser ID of the parser that would load the ontology otherwise
+   * @param ontologyID ontology ID
+   * @param compact whether to restore to a {@link CompactOntologyAccess}
+   * @return ontology or null
+   */
+  public static OntologyAccess read(File file, byte[] checksum, String parser, String ontologyID, boolean compact) {
+    if (!file.canRead())
+      return null;
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(parser))
+        return null;
+      byte[] saved = new byte[in.readInt()];
+      in.readFully(saved);
+      if (!Arrays.equals(saved, checksum)) {
+        log.info("Snapshot " + file + " is stale");
+        return null;
+      }
+
+      final OntologyAccess oa = (compact) ? new CompactOntologyAccess() : new OntologyAccessImpl();
+      oa.setName(ontologyID);
+      final int n = in.readInt();
+      final String[] accessions = new String[n];
+      for (int i = 0; i < n; i++) {
+        accessions[i] = in.readUTF();
+        OntologyTermI term = new OntologyTermImpl(ontologyID, accessions[i], readString(in));
+        int s = in.readInt();
+        Collection<String> synonyms = term.getNameSynonyms();
+        for (int j = 0; j < s; j++)
+          synonyms.add(in.readUTF());
+        oa.addTerm(term);
+        if (in.readBoolean())
+          oa.addObsoleteTerm(term);
+      }
+
+      for (int i = 0; i < n; i++) {
+        int c = in.readInt();
+        for (int j = 0; j < c; j++)
+          oa.addLink(accessions[i], accessions[in.readInt()]);
+      }
+
+      return oa;
+    } catch (Exception e) {
+      log.warn("Failed reading snapshot " + file + "; " + e);
+      return null;
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null)
+      out.writeUTF(s);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return (in.readBoolean()) ? in.readUTF() : null;
+  }
+}
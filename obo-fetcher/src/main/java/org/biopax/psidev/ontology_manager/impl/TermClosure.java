@@ -0,0 +1,241 @@
+package org.biopax.psidev.ontology_manager.impl;
+
+import org.biopax.psidev.ontology_manager.OntologyTermI;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Transitive closure of an ontology terms hierarchy:
+ * all the ancestors and descendants of each term,
+ * as sorted arrays of dense term indices.
+ *
+ * @author rodche (baderlab.org)
+ */
+final class TermClosure {
+
+  private final OntologyTermI[] terms;
+  private final ToIntFunction<String> indexOf;
+  private final int[][] ancestors;
+  private final int[][] descendants;
+
+  /**
+   * Computes the closure.
+   *
+   * A cycle in the hierarchy (not expected, but it happens in some OBO files)
+   * makes its terms ancestors and descendants of one another (a term is not its own ancestor, though).
+   *
+   * @param terms all the terms (the array index is the term index)
+   * @param directParents direct parents (indices) of each term
+   * @param indexOf finds the term index by accession (-1 if there's no such term)
+   */
+  TermClosure(OntologyTermI[] terms, int[][] directParents, ToIntFunction<String> indexOf) {
+    this.terms = terms;
+    this.indexOf = indexOf;
+    final int n = terms.length;
+
+    final int[] component = new int[n];
+    final int[][] members = components(directParents, component);
+
+    // terms reachable from each component (via at least one parent link), w/o duplicates;
+    // parent components go first, so their results are ready
+    final int[][] reachable = new int[members.length][];
+    final int[] mark = new int[n];
+    for (int c = 0; c < members.length; c++) {
+      int size = 0;
+      for (int m : members[c])
+        for (int p : directParents[m])
+          size += 1 + ((component[p] != c) ? reachable[component[p]].length : 0);
+      final int stamp = c + 1;
+      final int[] all = new int[size];
+      int k = 0;
+      for (int m : members[c]) {
+        for (int p : directParents[m]) {
+          if (mark[p] != stamp) {
+            mark[p] = stamp;
+            all[k++] = p;
+          }
+          if (component[p] != c) {
+            for (int a : reachable[component[p]]) {
+              if (mark[a] != stamp) {
+                mark[a] = stamp;
+                all[k++] = a;
+              }
+            }
+          }
+        }
+      }
+      final int[] result = Arrays.copyOf(all, k);
+      Arrays.sort(result);
+      reachable[c] = result;
+    }
+
+    ancestors = new int[n][];
+    for (int i = 0; i < n; i++) {
+      final int[] r = reachable[component[i]];
+      final int pos = Arrays.binarySearch(r, i);
+      if (pos < 0) {
+        ancestors[i] = r; // shared (not a cycle)
+      } else {
+        ancestors[i] = new int[r.length - 1];
+        System.arraycopy(r, 0, ancestors[i], 0, pos);
+        System.arraycopy(r, pos + 1, ancestors[i], pos, r.length - pos - 1);
+      }
+    }
+
+    // invert
+    final int[] counts = new int[n];
+    for (int i = 0; i < n; i++)
+      for (int a : ancestors[i])
+        counts[a]++;
+    descendants = new int[n][];
+    for (int i = 0; i < n; i++) {
+      descendants[i] = new int[counts[i]];
+      counts[i] = 0;
+    }
+    for (int i = 0; i < n; i++) // i grows, so the arrays get sorted
+      for (int a : ancestors[i])
+        descendants[a][counts[a]++] = i;
+  }
+
+  /**
+   * Finds the strongly connected components (Tarjan's algorithm, w/o recursion)
+   * of the term-to-parent links graph: a cycle becomes one component, and each
+   * term that is not in a cycle - a component by itself.
+   *
+   * @param direct direct parents of each term
+   * @param component to store the component index of each term
+   * @return component members, such that the components of the parents go first
+   */
+  private static int[][] components(int[][] direct, int[] component) {
+    final int n = direct.length;
+    final int[] order = new int[n]; // visiting order (from 1; 0 - not visited yet)
+    final int[] low = new int[n];
+    final int[] next = new int[n]; // next parent to visit
+    final boolean[] onStack = new boolean[n];
+    final int[] stack = new int[n];
+    final int[] path = new int[n];
+    final List<int[]> result = new ArrayList<>();
+    int sp = 0;
+    int visited = 0;
+
+    for (int root = 0; root < n; root++) {
+      if (order[root] != 0)
+        continue;
+      int depth = 0;
+      path[0] = root;
+      order[root] = low[root] = ++visited;
+      stack[sp++] = root;
+      onStack[root] = true;
+      while (depth >= 0) {
+        final int v = path[depth];
+        if (next[v] < direct[v].length) {
+          final int w = direct[v][next[v]++];
+          if (order[w] == 0) {
+            order[w] = low[w] = ++visited;
+            stack[sp++] = w;
+            onStack[w] = true;
+            path[++depth] = w;
+          } else if (onStack[w]) {
+            low[v] = Math.min(low[v], order[w]);
+          }
+        } else {
+          if (low[v] == order[v]) {
+            int start = sp;
+            do {
+              start--;
+            } while (stack[start] != v);
+            final int[] members = Arrays.copyOfRange(stack, start, sp);
+            for (int m : members) {
+              onStack[m] = false;
+              component[m] = result.size();
+            }
+            result.add(members);
+            sp = start;
+          }
+          if (--depth >= 0)
+            low[path[depth]] = Math.min(low[path[depth]], low[v]);
+        }
+      }
+    }
+
+    return result.toArray(new int[result.size()][]);
+  }
+
+  Set<OntologyTermI> getAllParents(OntologyTermI term) {
+    final int id = indexOf.applyAsInt(term.getTermAccession());
+    return (id < 0) ? Collections.<OntologyTermI>emptySet() : view(ancestors[id], 0, ancestors[id].length);
+  }
+
+  Set<OntologyTermI> getAllChildren(OntologyTermI term) {
+    final int id = indexOf.applyAsInt(term.getTermAccession());
+    return (id < 0) ? Collections.<OntologyTermI>emptySet() : view(descendants[id], 0, descendants[id].length);
+  }
+
+  boolean isChild(OntologyTermI parent, OntologyTermI term) {
+    final int p = indexOf.applyAsInt(parent.getTermAccession());
+    final int t = indexOf.applyAsInt(term.getTermAccession());
+    return p >= 0 && t >= 0 && Arrays.binarySearch(ancestors[t], p) >= 0;
+  }
+
+  /**
+   * Read-only set view of the terms.
+   *
+   * @param ids sorted term indices
+   * @param from start position (inclusive)
+   * @param to end position (exclusive)
+   * @return terms
+   */
+  Set<OntologyTermI> view(int[] ids, int from, int to) {
+    return new TermSet(terms, indexOf, ids, from, to);
+  }
+
+  /**
+   * Read-only set of terms backed by a sorted array of term indices.
+   */
+  static final class TermSet extends AbstractSet<OntologyTermI> {
+    private final OntologyTermI[] terms;
+    private final ToIntFunction<String> indexOf;
+    private final int[] ids;
+    private final int from;
+    private final int to;
+
+    TermSet(OntologyTermI[] terms, ToIntFunction<String> indexOf, int[] ids, int from, int to) {
+      this.terms = terms;
+      this.indexOf = indexOf;
+      this.ids = ids;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Iterator<OntologyTermI> iterator() {
+      return new Iterator<OntologyTermI>() {
+        private int next = from;
+
+        public boolean hasNext() {
+          return next < to;
+        }
+
+        public OntologyTermI next() {
+          if (next >= to)
+            throw new NoSuchElementException();
+          return terms[ids[next++]];
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof OntologyTermI))
+        return false;
+      final int id = indexOf.applyAsInt(((OntologyTermI) o).getTermAccession());
+      return id >= 0 && Arrays.binarySearch(ids, from, to, id) >= 0;
+    }
+  }
+}
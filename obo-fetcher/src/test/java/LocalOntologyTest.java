@@ -4,7 +4,9 @@ import org.biopax.psidev.ontology_manager.*;
 import org.biopax.psidev.ontology_manager.impl.*;
 import org.junit.*;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 //@Ignore
 public class LocalOntologyTest {
@@ -216,6 +218,18 @@ public class LocalOntologyTest {
 				"MI:0000", "molecular interaction")));
 	}
 
+	@Test
+	public void isChild() {
+		final OntologyTermI term = mi.getTermForAccession("MI:0013");
+		final OntologyTermI root = mi.getTermForAccession("MI:0001");
+		assertTrue(mi.isChild(root, term));
+		assertFalse(mi.isChild(term, root));
+		assertFalse(mi.isChild(term, term));
+		assertTrue(mi.getAllChildren(root).contains(term));
+		assertTrue(manager.isChild("http://identifiers.org/mi/MI:0001", "http://identifiers.org/mi/MI:0013"));
+		assertFalse(manager.isChild("http://identifiers.org/mi/MI:0013", "http://identifiers.org/mi/MI:0001"));
+	}
+
 	@Test
 	public void getAllParents_unknown_accession() {
 		final OntologyTermImpl term = new OntologyTermImpl("MI", "MI:xxxx",
@@ -236,6 +250,29 @@ public class LocalOntologyTest {
 	public final void testSearchTermByName() {
 		Set<OntologyTermI> term = manager.searchTermByName("O-phospho-L-serine");
 		assertFalse(term.isEmpty());
+		//by synonym, case insensitive, in selected ontologies
+		assertEquals(1, manager.searchTermByName("Classical Two Hybrid", Collections.singleton("MI")).size());
+		assertTrue(manager.searchTermByName("classical two hybrid", Collections.singleton("MOD")).isEmpty());
+		assertEquals("MI:0013", manager.findTerm(mi, "Biophysical").getTermAccession());
+	}
+
+	@Test
+	public final void testSearchTermByNameLocale() {
+		// in the Turkish locale, "I".toLowerCase() is the dotless "\u0131", and "i".toUpperCase() - "\u0130"
+		Locale locale = Locale.getDefault();
+		try {
+			Locale.setDefault(new Locale("tr", "TR"));
+			// the index was built in another locale
+			assertEquals(1, manager.searchTermByName("IDENTIFICATION BY MASS SPECTROMETRY", Collections.singleton("MI")).size());
+			// the index is built in this locale
+			OntologyManagerImpl m = new OntologyManagerImpl();
+			m.putOntology("MI", mi);
+			Set<OntologyTermI> terms = m.searchTermByName("identification by mass spectrometry");
+			assertEquals(1, terms.size());
+			assertEquals("MI:0427", terms.iterator().next().getTermAccession());
+		} finally {
+			Locale.setDefault(locale);
+		}
 	}
 
 	@Test
@@ -249,6 +286,197 @@ public class LocalOntologyTest {
 		assertEquals("MOD", term.getOntologyId());
 	}
 	
+	@Test
+	public void snapshot() throws Exception {
+		File file = File.createTempFile("mi-", ".snapshot");
+		file.deleteOnExit();
+		byte[] checksum = {1, 2, 3};
+		OntologySnapshot.write(mi, checksum, "obo-edit", file);
+		assertNull(OntologySnapshot.read(file, new byte[]{1, 2, 4}, "obo-edit", "MI", false)); //stale
+		assertNull(OntologySnapshot.read(file, checksum, "obo-stream", "MI", false)); //another parser
+
+		OntologyAccess oa = OntologySnapshot.read(file, checksum, "obo-edit", "MI", false);
+		assertNotNull(oa);
+		assertEquals(mi.getOntologyTerms().size(), oa.getOntologyTerms().size());
+		assertEquals(mi.getObsoleteTerms().size(), oa.getObsoleteTerms().size());
+		OntologyTermI y2h = oa.getTermForAccession("MI:0018");
+		assertEquals("MI", y2h.getOntologyId());
+		assertEquals(10, y2h.getNameSynonyms().size());
+		OntologyTermI term = oa.getTermForAccession("MI:0417");
+		assertEquals(mi.getAllChildren(term), oa.getAllChildren(term));
+		assertEquals(mi.getAllParents(term), oa.getAllParents(term));
+	}
+
+	@Test
+	public void managerSnapshots() throws Exception {
+		assertNull(new OntologyManagerImpl().getSnapshotDir()); //not used by default (unless configured)
+
+		File dir = File.createTempFile("obo-snapshots", "");
+		assertTrue(dir.delete());
+		try {
+			Properties cfg = new Properties();
+			cfg.put("MOD", "classpath:mod.obo");
+			OntologyManagerImpl m = new OntologyManagerImpl();
+			m.setSnapshotDir(dir);
+			m.loadOntologies(cfg); //parses, saves the snapshot
+			File snapshot = new File(dir, "MOD-obo-stream.snapshot");
+			assertTrue(snapshot.isFile());
+
+			OntologyManagerImpl m2 = new OntologyManagerImpl();
+			m2.setSnapshotDir(dir);
+			m2.loadOntologies(cfg); //restores
+			assertEquals(mod.getOntologyTerms().size(), m2.getOntology("MOD").getOntologyTerms().size());
+			assertEquals(3, m2.getOntology("MOD").getValidTerms("MOD:00647", true, false).size());
+		} finally {
+			for (File f : dir.listFiles())
+				f.delete();
+			dir.delete();
+		}
+	}
+
+	@Test
+	public void compact() throws Exception {
+		File file = File.createTempFile("mi-", ".snapshot");
+		file.deleteOnExit();
+		byte[] checksum = {1, 2, 3};
+		OntologySnapshot.write(mi, checksum, "obo-stream", file);
+		OntologyAccess oa = OntologySnapshot.read(file, checksum, "obo-stream", "MI", true);
+		assertTrue(oa instanceof CompactOntologyAccess);
+		assertEquals(mi.getOntologyTerms().size(), oa.getOntologyTerms().size());
+		assertEquals(mi.getRoots().size(), oa.getRoots().size());
+		assertTrue(oa.isObsolete(oa.getTermForAccession("MI:0205")));
+		OntologyTermI term = oa.getTermForAccession("MI:0417");
+		assertEquals(mi.getDirectChildren(term), oa.getDirectChildren(term));
+		assertEquals(mi.getDirectParents(term), oa.getDirectParents(term));
+		assertEquals(mi.getAllChildren(term), oa.getAllChildren(term));
+		assertTrue(oa.isChild(oa.getTermForAccession("MI:0045"), term));
+		assertEquals(10, oa.getTermForAccession("MI:0018").getNameSynonyms().size());
+	}
+
+	@Test
+	public void cycle() throws Exception {
+		OntologyAccess oa = new OboLoader().parseOboFile(getClass().getResource("/cycle.obo"), "CY");
+		assertCycle(oa);
+
+		// same in the compact form
+		File file = File.createTempFile("cycle", ".snapshot");
+		file.deleteOnExit();
+		byte[] checksum = {1, 2, 3};
+		OntologySnapshot.write(oa, checksum, "obo-stream", file);
+		OntologyAccess compact = OntologySnapshot.read(file, checksum, "obo-stream", "CY", true);
+		assertTrue(compact instanceof CompactOntologyAccess);
+		assertCycle(compact);
+	}
+
+	private static void assertCycle(OntologyAccess oa) {
+		assertEquals(accessions("CY:0001", "CY:0002", "CY:0003", "CY:0004"),
+			accessions(oa.getAllParents(oa.getTermForAccession("CY:0005"))));
+		// a term in the cycle is not its own parent/child
+		assertEquals(accessions("CY:0001", "CY:0003", "CY:0004"),
+			accessions(oa.getAllParents(oa.getTermForAccession("CY:0002"))));
+		assertEquals(accessions("CY:0002", "CY:0004", "CY:0005"),
+			accessions(oa.getAllChildren(oa.getTermForAccession("CY:0003"))));
+		assertEquals(accessions("CY:0002", "CY:0003", "CY:0004", "CY:0005", "CY:0006"),
+			accessions(oa.getAllChildren(oa.getTermForAccession("CY:0001"))));
+		assertEquals(accessions("CY:0001"), accessions(oa.getAllParents(oa.getTermForAccession("CY:0006"))));
+		assertTrue(oa.isChild(oa.getTermForAccession("CY:0002"), oa.getTermForAccession("CY:0004")));
+		assertTrue(oa.isChild(oa.getTermForAccession("CY:0004"), oa.getTermForAccession("CY:0002")));
+		assertFalse(oa.isChild(oa.getTermForAccession("CY:0005"), oa.getTermForAccession("CY:0002")));
+	}
+
+	private static Set<String> accessions(String... accessions) {
+		return new HashSet<>(Arrays.asList(accessions));
+	}
+
+	private static Set<String> accessions(Collection<OntologyTermI> terms) {
+		Set<String> accessions = new HashSet<>();
+		for (OntologyTermI t : terms)
+			accessions.add(t.getTermAccession());
+		return accessions;
+	}
+
+	@Test
+	public void lazyLoading() throws Exception {
+		OntologyManagerImpl lazyManager = new OntologyManagerImpl();
+		lazyManager.setLazy(true);
+		lazyManager.setNames(Collections.singletonMap("MI", "PSI-MI"));
+		Properties cfg = new Properties();
+		cfg.put("MI", "classpath:mi.obo");
+		lazyManager.loadOntologies(cfg);
+		assertTrue(lazyManager.containsOntology("MI"));
+		assertTrue(lazyManager.getOntologyIDs().contains("MI"));
+
+		OntologyAccess oa = lazyManager.getOntology("MI"); //loads now
+		assertNotNull(oa);
+		assertEquals("PSI-MI", oa.getName());
+		assertNotNull(oa.getTermForAccession("MI:0018"));
+		assertSame(oa, lazyManager.getOntology("MI"));
+		assertNull(lazyManager.getOntology("MOD"));
+	}
+
+	@Test
+	public void lazyLoadingByAccession() throws Exception {
+		OntologyManagerImpl lazyManager = new OntologyManagerImpl();
+		lazyManager.setLazy(true);
+		Properties cfg = new Properties();
+		cfg.put("MI", "classpath:mi.obo");
+		cfg.put("MOD", "classpath:mod.obo");
+		lazyManager.loadOntologies(cfg);
+
+		// unknown accession/name - loads only MI (or nothing)
+		assertNull(lazyManager.findTermByAccession("MI:9999"));
+		assertNull(lazyManager.findTermByAccession("XX:0001"));
+		assertTrue(lazyManager.searchTermByName("O-phosphorylated L-serine").isEmpty()); //a MOD:00046 synonym
+		assertEquals(new HashSet<>(Arrays.asList("MI", "MOD")), lazyManager.getOntologyIDs());
+		assertTrue(lazyManager.isLoaded("MI"));
+		assertFalse(lazyManager.isLoaded("MOD"));
+
+		assertNotNull(lazyManager.findTermByAccession("MOD:00046")); //loads MOD
+		assertTrue(lazyManager.isLoaded("MOD"));
+		assertEquals(1, lazyManager.searchTermByName("O-phosphorylated L-serine").size());
+	}
+
+	@Test
+	public final void testTermByUri() {
+		OntologyTermI term = manager.getTermByUri("http://identifiers.org/mi/MI:0018");
+		assertNotNull(term);
+		assertEquals("MI:0018", term.getTermAccession());
+		assertSame(term, manager.getTermByUri("urn:miriam:obo.mi:MI%3A0018"));
+		assertSame(term, manager.getTermByUri("http://identifiers.org/mi/MI:0018")); //cached
+		assertNull(manager.getTermByUri("http://identifiers.org/mi/MI:xxxx"));
+		assertNull(manager.getTermByUri("http://identifiers.org/mi/MI:xxxx"));
+	}
+
+	@Test
+	public final void termByUriCacheEviction() {
+		final AtomicInteger lookups = new AtomicInteger();
+		OntologyManagerImpl m = new OntologyManagerImpl() {
+			@Override
+			public OntologyTermI findTermByAccession(String acc) {
+				lookups.incrementAndGet();
+				return super.findTermByAccession(acc);
+			}
+		};
+		m.putOntology("MI", mi);
+		m.setMaxCachedUris(10);
+
+		// fill the cache many times over; the recently used term stays cached
+		for (int i = 0; i < 100; i++) {
+			assertNotNull(m.getTermByUri("http://identifiers.org/mi/MI:0018"));
+			assertNull(m.getTermByUri("http://identifiers.org/mi/MI:9" + i));
+		}
+		assertEquals(101, lookups.get()); //MI:0018 was looked up only once
+
+		lookups.set(0);
+		assertNull(m.getTermByUri("http://identifiers.org/mi/MI:90")); //evicted
+		assertNull(m.getTermByUri("http://identifiers.org/mi/MI:999")); //still cached
+		assertEquals(1, lookups.get());
+
+		// not a CV URI - not looked up (nor cached)
+		assertNull(m.getTermByUri("http://www.biopax.org/test#MI:0018"));
+		assertEquals(1, lookups.get());
+	}
+
 	@Test
 	public void getModChildren01157() {
 		Set<OntologyTermI> terms = mod.getValidTerms("MOD:01157", true, false);
@@ -6,11 +6,15 @@ import org.biopax.psidev.ontology_manager.OntologyTermI;
 import org.biopax.psidev.ontology_manager.impl.OntologyAccessImpl;
 import org.biopax.psidev.ontology_manager.impl.OntologyLoaderException;
 import org.biopax.psidev.ontology_manager.impl.OntologyManagerImpl;
+import org.biopax.psidev.ontology_manager.impl.OboLoader;
 import org.junit.*;
 
 
+import java.net.URL;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Properties;
+import java.util.Set;
 
 public class OntologyParserTest {
 	 
@@ -40,4 +44,30 @@ public class OntologyParserTest {
 		assertNotNull(oa2);
 		assertTrue(oa2 instanceof OntologyAccessImpl);
 	}
+
+	@Test
+	public void streamReaderMatchesOboEdit() throws OntologyLoaderException {
+		URL url = getClass().getResource("/mi.obo");
+		OntologyAccess oa = new OboLoader().parseOboFile(url, "MI");
+		OboLoader oboEditLoader = new OboLoader();
+		oboEditLoader.setOboEdit(true);
+		OntologyAccess expected = oboEditLoader.parseOboFile(url, "MI");
+
+		assertTrue(oa.getOntologyTerms().size() > 1000);
+		assertEquals(expected.getObsoleteTerms().size(), oa.getObsoleteTerms().size());
+		for (OntologyTermI term : oa.getOntologyTerms()) {
+			OntologyTermI t = expected.getTermForAccession(term.getTermAccession());
+			assertNotNull(term.getTermAccession(), t);
+			assertEquals(t.getPreferredName(), term.getPreferredName());
+			assertEquals(new HashSet<>(t.getNameSynonyms()), new HashSet<>(term.getNameSynonyms()));
+			assertEquals(accessions(expected.getDirectChildren(t)), accessions(oa.getDirectChildren(term)));
+		}
+	}
+
+	private static Set<String> accessions(Collection<OntologyTermI> terms) {
+		Set<String> accessions = new HashSet<>();
+		for (OntologyTermI t : terms)
+			accessions.add(t.getTermAccession());
+		return accessions;
+	}
 }
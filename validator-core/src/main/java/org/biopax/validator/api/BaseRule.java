@@ -1,6 +1,11 @@
 package org.biopax.validator.api;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.biopax.validator.api.beans.ErrorType;
 import org.biopax.validator.api.beans.Validation;
@@ -22,8 +27,24 @@ public abstract class BaseRule<T> implements Rule<T> {
 
   protected ValidatorUtils utils;
 
+  private final Class<?> domainType;
+
   public BaseRule() {
     logger = LogFactory.getLog(this.getClass());
+    domainType = resolveDomain(this.getClass());
+  }
+
+  /**
+   * Gets the type of objects this rule applies to, i.e., the actual
+   * type argument T of the concrete rule class (or Object, when it cannot be resolved).
+   *
+   * A validator may use this to pre-select the rules for a given type of
+   * objects; {@link #canCheck(Object)} is still called to make the final decision.
+   *
+   * @return the rule's domain class
+   */
+  public Class<?> getDomain() {
+    return domainType;
   }
 
   /**
@@ -89,4 +110,37 @@ public abstract class BaseRule<T> implements Rule<T> {
     return newArgs;
   }
 
+
+  /*
+   * Resolves the actual type argument of BaseRule<T>
+   * by walking up the class hierarchy of the concrete rule.
+   */
+  private static Class<?> resolveDomain(Class<?> ruleClass) {
+    final Map<TypeVariable<?>, Type> typeArgs = new HashMap<>();
+    for (Class<?> c = ruleClass; c != null && c != BaseRule.class; c = c.getSuperclass()) {
+      Type sup = c.getGenericSuperclass();
+      if (sup instanceof ParameterizedType) {
+        ParameterizedType pt = (ParameterizedType) sup;
+        TypeVariable<?>[] params = ((Class<?>) pt.getRawType()).getTypeParameters();
+        Type[] args = pt.getActualTypeArguments();
+        for (int i = 0; i < params.length; i++) {
+          Type a = args[i];
+          if (a instanceof TypeVariable && typeArgs.containsKey(a))
+            a = typeArgs.get(a); //defined in a subclass
+          typeArgs.put(params[i], a);
+        }
+      }
+    }
+
+    Type t = typeArgs.get(BaseRule.class.getTypeParameters()[0]);
+    if (t instanceof TypeVariable) { //unresolved (generic rule) - use the bound
+      Type[] bounds = ((TypeVariable<?>) t).getBounds();
+      t = (bounds.length > 0) ? bounds[0] : null;
+    }
+    if (t instanceof ParameterizedType)
+      t = ((ParameterizedType) t).getRawType();
+
+    return (t instanceof Class) ? (Class<?>) t : Object.class;
+  }
+
 }
@@ -62,7 +62,7 @@ public interface CvUtils {
    * all the restrictions in the set.
    *
    * @param restrictions - set of beans that together define the required constraint
-   * @return set of ontology terms
+   * @return set of ontology terms (unmodifiable)
    */
   Set<OntologyTermI> getValidTerms(Collection<CvRestriction> restrictions);
 
@@ -72,7 +72,7 @@ public interface CvUtils {
    * ('NOT' property, if set 'true', is ignored)
    *
    * @param restriction restriction (on type, context, ontology terms)
-   * @return ontology terms (objects)
+   * @return ontology terms (objects; unmodifiable)
    */
   Set<OntologyTermI> getTerms(CvRestriction restriction);
 
@@ -4,6 +4,7 @@ package org.biopax.validator.api;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.biopax.validator.api.beans.Validation;
 
@@ -88,6 +89,21 @@ public interface Validator {
   void validate(Validation validation);
 
 
+  /**
+   * Post-model validation with a time limit.
+   *
+   * Stops early when the time is out or the validation
+   * gets cancelled (see {@link Validation#cancel()}), in which case
+   * the validation is marked incomplete (see {@link Validation#isIncomplete()})
+   * and lists the rules that did not finish (see {@link Validation#getUnfinishedRules()}).
+   *
+   * @param validation results object
+   * @param timeout max time to wait for the results; 0 or less - no limit
+   * @param unit the timeout units
+   */
+  void validate(Validation validation, long timeout, TimeUnit unit);
+
+
   /**
    * Adds the validation error (with proper attributes)
    * to registered validation objects associated with the object.
@@ -69,7 +69,7 @@ public class ErrorCaseType implements Serializable, Comparable<ErrorCaseType> {
 
   public int compareTo(ErrorCaseType o) {
     //we only care to list error cases for the same object together
-    return String.valueOf(getObject()).compareToIgnoreCase(o.getObject());
+    return String.valueOf(getObject()).compareToIgnoreCase(String.valueOf(o.getObject()));
   }
 
   @Override
@@ -82,6 +82,21 @@ public class ErrorCaseType implements Serializable, Comparable<ErrorCaseType> {
 
   @Override
   public int hashCode() {
-    return new HashCodeBuilder().append(getObject()).append(getReportedBy()).build();
+    //case-insensitive, like equals
+    return new HashCodeBuilder()
+      .append(foldCase(String.valueOf(getObject())))
+      .append(foldCase(String.valueOf(getReportedBy())))
+      .build();
+  }
+
+  /*
+   * Locale-independent case folding, char by char, the same way as
+   * String.equalsIgnoreCase compares (so that equal strings have equal hash codes).
+   */
+  static String foldCase(String s) {
+    final char[] chars = new char[s.length()];
+    for (int i = 0; i < chars.length; i++)
+      chars[i] = Character.toLowerCase(Character.toUpperCase(s.charAt(i)));
+    return new String(chars);
   }
 }
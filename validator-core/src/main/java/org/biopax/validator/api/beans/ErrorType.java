@@ -4,6 +4,8 @@ package org.biopax.validator.api.beans;
 import java.io.Serializable;
 import java.util.*;
 
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.*;
 
 @XmlType(name="ErrorType")
@@ -13,14 +15,18 @@ public class ErrorType implements Serializable, Comparable<ErrorType> {
 	private static final long serialVersionUID = 1L;
 	
 	/* 
-	 * Collection of error cases 
-	 * must have unique error types (identified by code).
-	 * This is to be assured by implementing it as HashMap
-	 * and overriding the 'equals' method. 
-	 * 
+	 * Sorted error cases - for the XML binding only
+	 * (filled before marshalling, and emptied after
+	 * the content is moved to the index after unmarshalling).
 	 */
 	@XmlElement
 	private final Set<ErrorCaseType> errorCase; 
+	/*
+	 * Error cases by object (case-insensitive); as in the sorted set,
+	 * there is one case per object - the first rule reported it.
+	 */
+	@XmlTransient
+	private final Map<String, ErrorCaseType> cases;
 	@XmlAttribute
 	private String code = null;
 	@XmlAttribute
@@ -36,6 +42,7 @@ public class ErrorType implements Serializable, Comparable<ErrorType> {
 
 	public ErrorType() {
 		errorCase = new TreeSet<>();
+		cases = new HashMap<>();
 	}
 
 	public ErrorType(String code, Behavior type) {
@@ -53,17 +60,30 @@ public class ErrorType implements Serializable, Comparable<ErrorType> {
 	}
 	
 	/**
-	 * Unmodifiable set of validation current error cases.
+	 * Unmodifiable sorted set (a snapshot) of validation current error cases.
 	 * 
 	 * @return error cases
 	 */
 	public synchronized Collection<ErrorCaseType> getErrorCase() {
-		return Collections.unmodifiableSet(errorCase);
+		return Collections.unmodifiableSet(new TreeSet<>(cases.values()));
+	}
+
+	/*
+	 * Error cases in no particular order - a view, not a sorted copy
+	 * (for merging and counting; not thread-safe, so use only
+	 * when this error type is not shared yet or synchronized on).
+	 */
+	Collection<ErrorCaseType> cases() {
+		return cases.values();
 	}
 
 	public synchronized void setErrorCase(Collection<ErrorCaseType> errorCases) {
-		errorCase.clear();
-		errorCase.addAll(errorCases);
+		cases.clear();
+		for(ErrorCaseType ec : errorCases) {
+			cases.putIfAbsent(key(ec), ec);
+		}
+		totalCases = countErrors(null, null, false);
+		notFixedCases = countErrors(null, null, true);
 	}
 	
 	public String getCode() {
@@ -89,6 +109,8 @@ public class ErrorType implements Serializable, Comparable<ErrorType> {
 	 * (e.g., in a series of unsuccessful attempts 
 	 * to set a biopax property, the last error message
 	 * will override previous ones...)
+	 * A case about the same object but reported by another rule is ignored.
+	 * This also updates the total and not fixed cases counters.
 	 * 
 	 * @see ErrorCaseType#equals(Object)
 	 * @see ErrorCaseType#hashCode()
@@ -96,27 +118,51 @@ public class ErrorType implements Serializable, Comparable<ErrorType> {
 	 * @param newCase case
 	 */
 	public synchronized void addErrorCase(ErrorCaseType newCase) {
-		ErrorCaseType ect = findErrorCase(newCase);
-		if(ect != null) { //found a previously reported case
-			ect.setFixed(newCase.fixed);
-			if(!newCase.fixed) {		
-				// update the message
-				ect.setMessage(newCase.getMessage());
+		ErrorCaseType ect = cases.get(key(newCase));
+		if(ect != null) {
+			if(ect.equals(newCase)) { //found a previously reported case
+				setFixed(ect, newCase.fixed);
+				if(!newCase.fixed) {
+					// update the message
+					ect.setMessage(newCase.getMessage());
+				}
 			}
 		} else { //fresh error case
-			errorCase.add(newCase);
+			cases.put(key(newCase), newCase);
+			totalCases++;
+			if(!newCase.isFixed())
+				notFixedCases++;
+		}
+	}
+
+	/**
+	 * Sets the 'fixed' flag of an existing (already registered) error case
+	 * and updates the not fixed cases counter.
+	 *
+	 * @param ect error case that belongs to this error type
+	 * @param fixed new flag value
+	 */
+	synchronized void setFixed(ErrorCaseType ect, boolean fixed) {
+		if(ect.isFixed() != fixed) {
+			ect.setFixed(fixed);
+			notFixedCases += (fixed) ? -1 : 1;
 		}
 	}
 	
 
-	public void addCases(Collection<ErrorCaseType> cases) {
-		for (ErrorCaseType errorCase : cases) {
-			addErrorCase(errorCase);
+	public synchronized void addCases(Collection<ErrorCaseType> newCases) {
+		for (ErrorCaseType ec : newCases) {
+			addErrorCase(ec);
 		}
 	}
 		
 	public synchronized void removeErrorCase(ErrorCaseType eCase) {
-		errorCase.remove(eCase);
+		ErrorCaseType ect = cases.remove(key(eCase));
+		if(ect != null) {
+			totalCases--;
+			if(!ect.isFixed())
+				notFixedCases--;
+		}
 	}
 
 	
@@ -155,11 +201,12 @@ public class ErrorType implements Serializable, Comparable<ErrorType> {
 	}
 	
 	/**
-	 * Total number of error cases registered, including those auto-fixed.
+	 * Total number of error cases registered, including those auto-fixed
+	 * (the counter is updated as the cases get added or removed).
 	 * 
 	 * @return number
 	 */
-	public int getTotalCases() {
+	public synchronized int getTotalCases() {
 		return totalCases;
 	}
 	public void setTotalCases(int n) {
@@ -167,11 +214,12 @@ public class ErrorType implements Serializable, Comparable<ErrorType> {
 	}
 	
 	/**
-	 * Total number of error cases not fixed yet.
+	 * Total number of error cases not fixed yet
+	 * (the counter is updated as the cases get added, removed, or fixed).
 	 * 
 	 * @return number
 	 */
-	public int getNotFixedCases() {
+	public synchronized int getNotFixedCases() {
 		return notFixedCases;
 	}
 	public void setNotFixedCases(int n) {
@@ -186,10 +234,10 @@ public class ErrorType implements Serializable, Comparable<ErrorType> {
 	 * @param ignoreFixed skip fixed if true
 	 * @return number
 	 */
-	public int countErrors(String forObject, String reportedBy, boolean ignoreFixed) {
+	public synchronized int countErrors(String forObject, String reportedBy, boolean ignoreFixed) {
 		int count = 0;
 		
-		for(ErrorCaseType ec: errorCase) {
+		for(ErrorCaseType ec: cases()) {
 			if(forObject != null && !forObject.equals(ec.getObject())) {
 				continue;
 			}
@@ -219,14 +267,31 @@ public class ErrorType implements Serializable, Comparable<ErrorType> {
 	 * @return actual error case
 	 */
 	public synchronized ErrorCaseType findErrorCase(final ErrorCaseType searchBy) {
-		if(errorCase.contains(searchBy)) {
-			for (ErrorCaseType ec : getErrorCase()) {
-				if (ec.equals(searchBy)) {
-					return ec;
-				}
-			}
+		ErrorCaseType ect = cases.get(key(searchBy));
+		return (ect != null && ect.equals(searchBy)) ? ect : null;
+	}
+
+	private static String key(ErrorCaseType ect) {
+		return ErrorCaseType.foldCase(String.valueOf(ect.getObject()));
+	}
+
+	/*
+	 * JAXB callbacks (the sorted set of cases is used only for the XML binding)
+	 */
+	private synchronized void beforeMarshal(Marshaller marshaller) {
+		errorCase.clear();
+		errorCase.addAll(cases.values());
+	}
+
+	private synchronized void afterMarshal(Marshaller marshaller) {
+		errorCase.clear();
+	}
+
+	private synchronized void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+		for(ErrorCaseType ec : errorCase) {
+			cases.putIfAbsent(key(ec), ec);
 		}
-		return null;
+		errorCase.clear();
 	}
 
 }
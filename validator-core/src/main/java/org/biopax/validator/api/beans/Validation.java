@@ -4,7 +4,10 @@ package org.biopax.validator.api.beans;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.*;
 
 import org.apache.commons.text.StringEscapeUtils;
@@ -19,6 +22,14 @@ import org.biopax.validator.api.Rule;
 public class Validation implements Serializable {
 	private static final long serialVersionUID = 1L;
 	private static final Log log = LogFactory.getLog(Validation.class);
+
+	// lock-free updates of the problem counters
+	private static final AtomicIntegerFieldUpdater<Validation> NOT_FIXED_PROBLEMS =
+		AtomicIntegerFieldUpdater.newUpdater(Validation.class, "notFixedProblems");
+	private static final AtomicIntegerFieldUpdater<Validation> NOT_FIXED_ERRORS =
+		AtomicIntegerFieldUpdater.newUpdater(Validation.class, "notFixedErrors");
+	private static final AtomicIntegerFieldUpdater<Validation> TOTAL_PROBLEMS_FOUND =
+		AtomicIntegerFieldUpdater.newUpdater(Validation.class, "totalProblemsFound");
 	
 	@XmlTransient
 	private Object model;
@@ -36,16 +47,22 @@ public class Validation implements Serializable {
 	private String modelData; //cannot store more than ~1Gb data.
 	@XmlElement
 	private final Set<ErrorType> error;
+	// error types index, by (code, type)
+	@XmlTransient
+	private final Map<ErrorType, ErrorType> errorIndex;
 	@XmlAttribute
 	private String description;
 	@XmlElement
 	private final Set<String> comment;
+	// rules that were not applied to all the objects (when the validation was cut short)
+	@XmlElement
+	private final Set<String> unfinishedRule;
 	@XmlAttribute
-	private int notFixedProblems = 0;
+	private volatile int notFixedProblems = 0;
 	@XmlAttribute
-	private int notFixedErrors = 0;
+	private volatile int notFixedErrors = 0;
 	@XmlAttribute
-	private int totalProblemsFound = 0;
+	private volatile int totalProblemsFound = 0;
 	@XmlAttribute
 	private boolean fix;
 	@XmlAttribute
@@ -58,6 +75,12 @@ public class Validation implements Serializable {
 	private String profile;
 	@XmlAttribute
 	private String summary;
+	// true when not all the rules/objects were checked (e.g., the errors limit was reached)
+	@XmlAttribute
+	private volatile boolean incomplete;
+	// a cancellation request (can be set from another thread)
+	@XmlTransient
+	private volatile boolean cancelled;
 	
 	
 	/** 
@@ -65,10 +88,12 @@ public class Validation implements Serializable {
 	 * @param idCalculator a strategy object to get a domain-specific identifier (for reporting)
 	 */
 	public Validation(Identifier idCalculator) {
-		this.error = new TreeSet<>();
+		this.error = new ConcurrentSkipListSet<>();
+		this.errorIndex = new ConcurrentHashMap<>();
 		this.objects = Collections.newSetFromMap(new ConcurrentHashMap<>());
 		this.description = "unknown";
 		this.comment = new HashSet<>();
+		this.unfinishedRule = new ConcurrentSkipListSet<>();
 		this.fix = false;
 		this.threshold = Behavior.WARNING;
 		this.maxErrors = Integer.MAX_VALUE;
@@ -161,6 +186,16 @@ public class Validation implements Serializable {
 	public synchronized void setError(Collection<ErrorType> errors) {
 		error.clear();
 		error.addAll(errors);
+		errorIndex.clear();
+		for(ErrorType et : error) {
+			errorIndex.put(et, et);
+		}
+		totalProblemsFound = 0;
+		notFixedProblems = 0;
+		notFixedErrors = 0;
+		for(ErrorType et : error) {
+			count(et.getType(), et.getTotalCases(), et.getNotFixedCases());
+		}
 	}
 
 	/**
@@ -213,28 +248,45 @@ public class Validation implements Serializable {
 	 * the new error cases will be copied to it;
 	 * otherwise, the new one is simply added to the set.
 	 * 
-	 * It also updates the not-fixed errors counter,
+	 * It also updates the total, not-fixed problems and errors counters,
 	 * taking into account current validation threshold (level)
 	 * and error's own type {@link Behavior} set by a validation rule
 	 * that created it!
 	 * 
+	 * This method is thread-safe but does not use a global lock
+	 * (unless the errors limit is set, see {@link #isMaxErrorsSet()}):
+	 * the cases of different error types are added concurrently
+	 * (the error type object is the lock), and the counters are atomic.
+	 * 
 	 * @see #setThreshold(Behavior)
 	 * @see ErrorType#hashCode()
 	 * @see ErrorType#equals(Object)
 	 * 
 	 * @param e Error type
 	 */
-	public synchronized void addError(ErrorType e) {	
-		
-		int numNotFixedErrors = countErrors(null, null, null, null, true, true);
-
-		if(isMaxErrorsSet() && numNotFixedErrors >= getMaxErrors())
-		{
-			log.info("Won't save the case: max. errors " +
-				"limit exceeded for " + getDescription());
-			return;
-		}	
+	public void addError(ErrorType e) {	
 		
+		if(isMaxErrorsSet()) {
+			// add one error at a time to strictly obey the limit
+			synchronized (this) {
+				if(isMaxErrorsReached()) {
+					log.info("Won't save the case: max. errors " +
+						"limit exceeded for " + getDescription());
+					return;
+				}
+				merge(e);
+			}
+		} else {
+			merge(e);
+		}
+	}
+
+	/*
+	 * Adds the error type or copies its cases
+	 * to the existing one (with the same code and type),
+	 * unless it's below the threshold.
+	 */
+	private void merge(ErrorType e) {
 		switch (threshold) {
 		case IGNORE:
 			break; // do nothing
@@ -243,22 +295,39 @@ public class Validation implements Serializable {
 				break; // do not add (only errors pass)
 			}
 		default: // add error with all cases
-			synchronized (this) {
-				if (error.contains(e)) {
-					for (ErrorType et : error) {
-						if (et.equals(e)) {
-							et.addCases(e.getErrorCase());
-							break;
-						}
-					}
-				} else { // adding a new error type (code)
+			ErrorType et;
+			synchronized (e) {
+				et = errorIndex.putIfAbsent(e, e);
+				if (et == null) { // added a new error type (code)
 					error.add(e);
+					count(e.getType(), e.getTotalCases(), e.getNotFixedCases());
+					break;
 				}
 			}
+			synchronized (et) {
+				int total = et.getTotalCases();
+				int notFixed = et.getNotFixedCases();
+				et.addCases(e.cases()); // e is a new error type, not shared yet
+				count(et.getType(), et.getTotalCases() - total, et.getNotFixedCases() - notFixed);
+			}
 			break;
 		}
 	}
 
+	/*
+	 * Updates the problem counters
+	 * (warnings do not count as errors).
+	 */
+	private void count(Behavior type, int total, int notFixed) {
+		if(total != 0)
+			TOTAL_PROBLEMS_FOUND.addAndGet(this, total);
+		if(notFixed != 0) {
+			NOT_FIXED_PROBLEMS.addAndGet(this, notFixed);
+			if(type != Behavior.WARNING)
+				NOT_FIXED_ERRORS.addAndGet(this, notFixed);
+		}
+	}
+
 	/**
 	 * Sets the information about this validation task. 
 	 * 
@@ -336,28 +405,17 @@ public class Validation implements Serializable {
 	 *
 	 */
 	private ErrorType findErrorType(ErrorType errorType) {
-		if(getError().contains(errorType)) {
-			for(ErrorType et: getError()) {
-				if(et.equals(errorType)) {
-					return et;
-				}
-			}
-		} 
-		return null;
+		return errorIndex.get(errorType);
 	}
 
 	/*
-	 * Finds the same error case in the registry.
-	 * 
-	 * @see ErrorType#equals(Object)
-	 * @see ErrorType#hashCode()
-	 * @see ErrorCaseType#equals(Object)
-	 * @see ErrorCaseType#hashCode()
-	 *
+	 * JAXB callback (to index the error types)
 	 */
-	private ErrorCaseType findErrorCase(ErrorType errorType, ErrorCaseType errCase) {
-		ErrorType e = findErrorType(errorType);
-		return (e != null) ? e.findErrorCase(errCase) : null;
+	private synchronized void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+		errorIndex.clear();
+		for(ErrorType et : error) {
+			errorIndex.put(et, et);
+		}
 	}
 
 	/**
@@ -452,6 +510,7 @@ public class Validation implements Serializable {
 	/**
 	 * Total number of {@link Behavior#ERROR} and 
 	 * {@link Behavior#WARNING} cases (either fixed or not).
+	 * The counter is updated when a case is added.
 	 * 
 	 * @return number of different type of error/warning
 	 */
@@ -465,9 +524,10 @@ public class Validation implements Serializable {
 	/**
 	 * Total number of {@link Behavior#ERROR} and 
 	 * {@link Behavior#WARNING} cases, NOT fixed.
+	 * The counter is updated when a case is added or fixed.
 	 * @return the no. not fixed warning or error cases
 	 */
-	public synchronized int getNotFixedProblems() {
+	public int getNotFixedProblems() {
 		return notFixedProblems;
 	}
 	public void setNotFixedProblems(int n) {
@@ -476,9 +536,10 @@ public class Validation implements Serializable {
 
 	/** 
 	 * Total number of NOT fixed {@link Behavior#ERROR} cases.
+	 * The counter is updated when a case is added or fixed.
 	 * @return the no. not fixed error cases
 	 */
-	public synchronized int getNotFixedErrors() {
+	public int getNotFixedErrors() {
 		return notFixedErrors;
 	}
 	public void setNotFixedErrors(int n) {
@@ -496,27 +557,30 @@ public class Validation implements Serializable {
 	 */	
 	public void setFixed(String objectId, String rule, String errCode, String newMsg) 
 	{
-		Behavior type = Behavior.WARNING;
-		ErrorCaseType ect = findErrorCase(new ErrorType(errCode, type), 
-			new ErrorCaseType(rule, objectId, null)); // msg is ignored when comparing errors anyway
+		final ErrorCaseType searchBy = new ErrorCaseType(rule, objectId, null); // msg is ignored when comparing errors anyway
+		ErrorType et = findErrorType(new ErrorType(errCode, Behavior.WARNING));
+		ErrorCaseType ect = (et != null) ? et.findErrorCase(searchBy) : null;
 		
 		if(ect == null) {
-			type = Behavior.ERROR;
-			ect = findErrorCase(
-				new ErrorType(errCode, type), 
-				new ErrorCaseType(rule, objectId, null));
+			et = findErrorType(new ErrorType(errCode, Behavior.ERROR));
+			ect = (et != null) ? et.findErrorCase(searchBy) : null;
 		}
 		
-		if(ect != null && !ect.isFixed()) {
-			ect.setFixed(true);
-			if(newMsg != null && !"".equals(newMsg.trim()))
-				ect.setMessage(newMsg);
+		if(ect != null) {
+			synchronized (et) {
+				if(!ect.isFixed()) {
+					et.setFixed(ect, true);
+					count(et.getType(), 0, -1);
+					if(newMsg != null && !"".equals(newMsg.trim()))
+						ect.setMessage(newMsg);
+				}
+			}
 		}
 	}
 	
 	/**
 	 * Errors limit. After this value is reached, the validator stops registering new error cases
-	 * with this validation object (though rules continue to check and report). 
+	 * with this validation object and cancels the remaining checks (see {@link #isMaxErrorsReached()}). 
 	 * If this method returns 0 that actually means "not set", which also means 'unlimited'
 	 * (this is to avoid generating unnecessary XML attribute value, such as {@link Integer#MAX_VALUE}).
 	 * 
@@ -545,6 +609,61 @@ public class Validation implements Serializable {
 		return this.maxErrors > 0 
 			&& this.maxErrors < Integer.MAX_VALUE;
 	}
+
+	/**
+	 * Whether the errors limit is set and there are already
+	 * that many not fixed errors registered (so there is no 
+	 * point to continue checking).
+	 * 
+	 * @return true iif {@link #isMaxErrorsSet()} and the limit is reached
+	 */
+	@XmlTransient
+	public boolean isMaxErrorsReached() {
+		return isMaxErrorsSet() && notFixedErrors >= maxErrors;
+	}
+
+	/**
+	 * Whether the validation was stopped before all 
+	 * the rules were applied to all the objects 
+	 * (e.g., because the errors limit was reached),
+	 * i.e., the results are partial.
+	 * 
+	 * @return true if the validation was truncated
+	 */
+	public boolean isIncomplete() {
+		return incomplete;
+	}
+	public void setIncomplete(boolean incomplete) {
+		this.incomplete = incomplete;
+	}
+
+	/**
+	 * Names of the rules that were not applied 
+	 * (at least, not to all the objects) because 
+	 * the validation was cut short (see {@link #isIncomplete()}).
+	 * 
+	 * @return rule names
+	 */
+	public Collection<String> getUnfinishedRules() {
+		return unfinishedRule;
+	}
+
+	/**
+	 * Requests to stop this validation as soon as possible.
+	 * The validator skips the remaining checks and returns
+	 * the partial results (marked incomplete).
+	 */
+	public void cancel() {
+		this.cancelled = true;
+	}
+
+	/**
+	 * @return true if {@link #cancel()} was called
+	 */
+	@XmlTransient
+	public boolean isCancelled() {
+		return cancelled;
+	}
 	
 	/**
 	 * Gets normalizer settings.
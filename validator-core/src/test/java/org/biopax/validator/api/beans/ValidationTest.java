@@ -0,0 +1,182 @@
+package org.biopax.validator.api.beans;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class ValidationTest {
+
+	private static final int THREADS = 8;
+	private static final int CASES = 2000;
+
+	/*
+	 * The i-th reported problem (the same for all threads, so that
+	 * the result does not depend on which thread reports a case first).
+	 */
+	private static ErrorType error(int i) {
+		ErrorType e = new ErrorType("code" + (i % 5), (i % 2 == 0) ? Behavior.ERROR : Behavior.WARNING);
+		ErrorCaseType c = new ErrorCaseType("rule" + (i % 3), "obj" + i, "msg" + i);
+		c.setFixed(i % 7 == 0);
+		e.addErrorCase(c);
+		return e;
+	}
+
+	// all the reported cases (error code, type, object, rule, fixed)
+	private static Set<String> cases(Validation v) {
+		Set<String> cases = new TreeSet<>();
+		for (ErrorType e : v.getError())
+			for (ErrorCaseType c : e.getErrorCase())
+				cases.add(e.getCode() + " " + e.getType() + " " + c.getObject()
+					+ " " + c.getReportedBy() + " " + c.isFixed());
+		return cases;
+	}
+
+	// each thread reports all the problems, starting from a different one
+	private static void addConcurrently(final Validation v) throws Exception {
+		ExecutorService exec = Executors.newFixedThreadPool(THREADS);
+		try {
+			final CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				final int offset = t * CASES / THREADS;
+				tasks.add(exec.submit(() -> {
+					start.await();
+					for (int i = 0; i < CASES; i++)
+						v.addError(error((i + offset) % CASES));
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> task : tasks)
+				task.get();
+		} finally {
+			exec.shutdown();
+		}
+	}
+
+	@Test
+	public final void concurrentMerge() throws Exception {
+		Validation sequential = new Validation(null);
+		for (int i = 0; i < CASES; i++)
+			sequential.addError(error(i));
+
+		Validation concurrent = new Validation(null);
+		addConcurrently(concurrent);
+
+		assertEquals(10, concurrent.getError().size()); //5 codes x 2 types
+		assertEquals(cases(sequential), cases(concurrent));
+		assertEquals(CASES, concurrent.getTotalProblemsFound());
+		assertEquals(sequential.getTotalProblemsFound(), concurrent.getTotalProblemsFound());
+		assertEquals(sequential.getNotFixedProblems(), concurrent.getNotFixedProblems());
+		assertEquals(sequential.getNotFixedErrors(), concurrent.getNotFixedErrors());
+		//running counters agree with the full recount
+		assertEquals(concurrent.countErrors(null, null, null, null, false, true), concurrent.getNotFixedProblems());
+		assertEquals(concurrent.countErrors(null, null, null, null, true, true), concurrent.getNotFixedErrors());
+	}
+
+	@Test
+	public final void concurrentMaxErrors() throws Exception {
+		Validation sequential = new Validation(null);
+		sequential.setMaxErrors(100);
+		for (int i = 0; i < CASES; i++)
+			sequential.addError(error(i));
+
+		Validation concurrent = new Validation(null);
+		concurrent.setMaxErrors(100);
+		addConcurrently(concurrent);
+
+		assertTrue(sequential.isMaxErrorsReached());
+		assertTrue(concurrent.isMaxErrorsReached());
+		// the limit is never exceeded
+		assertEquals(100, sequential.getNotFixedErrors());
+		assertEquals(sequential.getNotFixedErrors(), concurrent.getNotFixedErrors());
+		assertEquals(concurrent.countErrors(null, null, null, null, true, true), concurrent.getNotFixedErrors());
+		assertEquals(concurrent.countErrors(null, null, null, null, false, false), concurrent.getTotalProblemsFound());
+	}
+
+	@Test
+	public final void testValidationCounters() {
+		Validation v = new Validation(null);
+		ErrorType e = new ErrorType("foo.bar", Behavior.ERROR);
+		e.addErrorCase(new ErrorCaseType("rule1", "obj1", "msg"));
+		v.addError(e);
+		e = new ErrorType("foo.bar", Behavior.ERROR);
+		e.addErrorCase(new ErrorCaseType("rule1", "obj2", "msg"));
+		v.addError(e);
+		e = new ErrorType("foo.baz", Behavior.WARNING);
+		ErrorCaseType c = new ErrorCaseType("rule2", "obj1", "msg");
+		c.setFixed(true);
+		e.addErrorCase(c);
+		v.addError(e);
+		//the same case again (no change)
+		e = new ErrorType("foo.bar", Behavior.ERROR);
+		e.addErrorCase(new ErrorCaseType("rule1", "obj2", "new msg"));
+		v.addError(e);
+
+		assertEquals(3, v.getTotalProblemsFound());
+		assertEquals(2, v.getNotFixedProblems());
+		assertEquals(2, v.getNotFixedErrors());
+
+		v.setFixed("obj1", "rule1", "foo.bar", "fixed");
+		assertEquals(3, v.getTotalProblemsFound());
+		assertEquals(1, v.getNotFixedProblems());
+		assertEquals(1, v.getNotFixedErrors());
+
+		//running counters agree with the full recount
+		assertEquals(v.countErrors(null, null, null, null, false, false), v.getTotalProblemsFound());
+		assertEquals(v.countErrors(null, null, null, null, false, true), v.getNotFixedProblems());
+		assertEquals(v.countErrors(null, null, null, null, true, true), v.getNotFixedErrors());
+		for(ErrorType et : v.getError()) {
+			assertEquals(et.countErrors(null, null, false), et.getTotalCases());
+			assertEquals(et.countErrors(null, null, true), et.getNotFixedCases());
+		}
+	}
+
+	@Test
+	public final void testMaxErrorsReached() {
+		Validation v = new Validation(null);
+		v.setMaxErrors(2);
+		assertFalse(v.isMaxErrorsReached());
+		for(int i = 1; i <= 3; i++) {
+			ErrorType e = new ErrorType("foo.bar", Behavior.ERROR);
+			e.addErrorCase(new ErrorCaseType("rule1", "obj" + i, "msg"));
+			v.addError(e);
+		}
+		assertTrue(v.isMaxErrorsReached());
+		assertEquals(2, v.getNotFixedErrors()); //the third one was not saved
+	}
+
+	@Test
+	public final void testErrorCasesIndex() {
+		ErrorType e = new ErrorType("foo.bar", Behavior.ERROR);
+		e.addErrorCase(new ErrorCaseType("rule1", "obj1", "msg1"));
+		e.addErrorCase(new ErrorCaseType("rule2", "obj1", "msg2")); //same object, another rule - ignored
+		e.addErrorCase(new ErrorCaseType("RULE1", "OBJ1", "msg3")); //same case (case-insensitive)
+		e.addErrorCase(new ErrorCaseType("rule2", "obj2", "msg4"));
+		assertEquals(2, e.getErrorCase().size());
+		assertEquals(2, e.getTotalCases());
+		assertEquals("msg3", e.findErrorCase(new ErrorCaseType("rule1", "obj1", null)).getMessage());
+		assertNull(e.findErrorCase(new ErrorCaseType("rule2", "obj1", null)));
+		e.removeErrorCase(new ErrorCaseType("rule2", "obj2", null));
+		assertEquals(1, e.getErrorCase().size());
+		assertEquals(1, e.getNotFixedCases());
+
+		// equal (ignoring case) cases have the same hash code in any locale
+		Locale locale = Locale.getDefault();
+		try {
+			Locale.setDefault(new Locale("tr", "TR"));
+			assertEquals(new ErrorCaseType("RULE", "TITLE", null), new ErrorCaseType("rule", "title", null));
+			assertEquals(new ErrorCaseType("RULE", "TITLE", null).hashCode(),
+				new ErrorCaseType("rule", "title", null).hashCode());
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+
+}